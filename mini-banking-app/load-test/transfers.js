@@ -0,0 +1,81 @@
+// k6 load test for comparing the platform-thread and virtual-thread request models.
+//
+//   docker compose up -d db backend
+//   docker compose --profile loadtest run --rm loadtest
+//
+//   BACKEND_IMAGE=eclipse-temurin:21-jdk BACKEND_MAVEN_ARGS=-Pjava21 SPRING_PROFILES_ACTIVE=virtual-threads \
+//       docker compose up -d --force-recreate backend
+//   LOADTEST_MODE=virtual docker compose --profile loadtest run --rm loadtest
+//
+// Each run writes a summary (request rate, latency percentiles, error rate) to load-test/results/.
+// Compare the two files at the same VUS: the mix is logins (BCrypt-bound), history reads and transfers.
+import http from 'k6/http';
+import { check } from 'k6';
+
+const BASE_URL = __ENV.BASE_URL || 'http://localhost:8080';
+const VUS = Number(__ENV.VUS || 2000);
+const ACCOUNTS = 20;
+
+export const options = {
+  scenarios: {
+    ramp: {
+      executor: 'ramping-vus',
+      startVUs: 0,
+      stages: [
+        { duration: '30s', target: VUS },
+        { duration: '2m', target: VUS },
+        { duration: '15s', target: 0 },
+      ],
+    },
+  },
+  thresholds: {
+    http_req_failed: ['rate<0.01'],
+  },
+};
+
+const json = (token) => ({
+  headers: Object.assign({ 'Content-Type': 'application/json' }, token ? { Authorization: `Bearer ${token}` } : {}),
+});
+
+export function setup() {
+  const username = `load-${Date.now()}`;
+  const password = 'load-test-password';
+  const registered = http.post(`${BASE_URL}/api/users/register`,
+    JSON.stringify({ username, password, email: `${username}@example.com` }), json());
+  const token = registered.json('token');
+
+  const accounts = [];
+  for (let i = 0; i < ACCOUNTS; i++) {
+    const created = http.post(`${BASE_URL}/api/accounts`,
+      JSON.stringify({ name: `load-${i}`, balance: 1000000000, type: 'SAVING' }), json(token));
+    accounts.push({ id: created.json('id'), number: created.json('number') });
+  }
+  return { username, password, token, accounts };
+}
+
+export default function (data) {
+  const roll = Math.random();
+  if (roll < 0.1) {
+    const res = http.post(`${BASE_URL}/api/users/login`,
+      JSON.stringify({ username: data.username, password: data.password }), json());
+    check(res, { 'login ok': (r) => r.status === 200 });
+  } else if (roll < 0.5) {
+    const account = data.accounts[Math.floor(Math.random() * data.accounts.length)];
+    const res = http.get(`${BASE_URL}/api/transactions/account/${account.id}?size=20`, json(data.token));
+    check(res, { 'history ok': (r) => r.status === 200 });
+  } else {
+    const from = Math.floor(Math.random() * data.accounts.length);
+    const to = (from + 1 + Math.floor(Math.random() * (data.accounts.length - 1))) % data.accounts.length;
+    const res = http.post(`${BASE_URL}/api/transactions/transfer`, JSON.stringify({
+      fromAccountNumber: data.accounts[from].number,
+      toAccountNumber: data.accounts[to].number,
+      amount: 1,
+    }), json(data.token));
+    check(res, { 'transfer ok': (r) => r.status === 200 });
+  }
+}
+
+export function handleSummary(data) {
+  const mode = __ENV.MODE || 'platform';
+  return { [`/results/summary-${mode}.json`]: JSON.stringify(data, null, 2) };
+}
@@ -0,0 +1,66 @@
+package com.mertyurekli.minibankingbackend.benchmark;
+
+import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+import com.mertyurekli.minibankingbackend.entity.User;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.UserRepository;
+import com.mertyurekli.minibankingbackend.service.impl.AccountNumberGenerator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Bulk onboarding: many threads asking for numbers at once, alone and together with the account insert
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(8)
+public class AccountNumberBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private AccountNumberGenerator accountNumberGenerator;
+    private AccountRepository accountRepository;
+    private User user;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start("jpa");
+        accountNumberGenerator = context.getBean(AccountNumberGenerator.class);
+        accountRepository = context.getBean(AccountRepository.class);
+        LocalDateTime now = LocalDateTime.now();
+        user = context.getBean(UserRepository.class)
+                .save(new User(null, "bench-" + UUID.randomUUID(), "x", "bench@example.com", now, now));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String nextNumber() {
+        return accountNumberGenerator.nextNumber();
+    }
+
+    @Benchmark
+    public Account onboardAccount() {
+        LocalDateTime now = LocalDateTime.now();
+        Account account = new Account();
+        account.setNumber(accountNumberGenerator.nextNumber());
+        account.setName("onboarded");
+        account.setBalance(BigDecimal.ZERO);
+        account.setType(AccountType.SAVING);
+        account.setCreatedAt(now);
+        account.setUpdatedAt(now);
+        account.setUser(user);
+        return accountRepository.save(account);
+    }
+}
\ No newline at end of file
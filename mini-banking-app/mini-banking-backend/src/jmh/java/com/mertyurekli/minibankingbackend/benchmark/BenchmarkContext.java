@@ -0,0 +1,62 @@
+package com.mertyurekli.minibankingbackend.benchmark;
+
+import com.mertyurekli.minibankingbackend.MiniBankingBackendApplication;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+// Boots the application without a web server against H2 in PostgreSQL mode,
+// or against a real database when bench.datasource.url (plus username/password) is set.
+// JMH forks the benchmark JVM, so pass them through jmh.args: -jvmArgsAppend -Dbench.datasource.url=...
+final class BenchmarkContext {
+
+    private BenchmarkContext() {
+    }
+
+    static ConfigurableApplicationContext start(String ledgerEngine) throws IOException {
+        return start(ledgerEngine, Map.of());
+    }
+
+    static ConfigurableApplicationContext start(String ledgerEngine, Map<String, Object> overrides) throws IOException {
+        Map<String, Object> properties = new HashMap<>();
+        String url = System.getProperty("bench.datasource.url");
+        if (url == null) {
+            properties.put("spring.datasource.url", "jdbc:h2:mem:bench;MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1");
+            properties.put("spring.datasource.username", "sa");
+            properties.put("spring.datasource.password", "");
+            properties.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+            // The migrations use PostgreSQL-only DDL (pg_trgm, CONCURRENTLY), so let Hibernate build the H2 schema
+            properties.put("spring.flyway.enabled", "false");
+            properties.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+            properties.put("schema.index-check.enabled", "false");
+            properties.put("transactions.partitioning.enabled", "false");
+        } else {
+            properties.put("spring.datasource.url", url);
+            properties.put("spring.datasource.username", System.getProperty("bench.datasource.username", "postgres"));
+            properties.put("spring.datasource.password", System.getProperty("bench.datasource.password", "postgresql"));
+        }
+        properties.put("ledger.engine", ledgerEngine);
+        properties.put("ledger.wal.path", Files.createTempDirectory("ledger-bench").resolve("ledger.wal").toString());
+        properties.put("logging.level.root", "WARN");
+        properties.putAll(overrides);
+
+        // Passed as command line arguments: default properties would lose to application.properties
+        String[] args = properties.entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(MiniBankingBackendApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(args);
+        if (url == null) {
+            // Created by a Flyway migration on PostgreSQL; Hibernate only knows about entity tables
+            context.getBean(JdbcTemplate.class).execute("CREATE SEQUENCE IF NOT EXISTS account_number_seq START WITH 1");
+        }
+        return context;
+    }
+}
@@ -0,0 +1,46 @@
+package com.mertyurekli.minibankingbackend.benchmark;
+
+import com.mertyurekli.minibankingbackend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtBenchmark {
+
+    private JwtUtil jwtUtil;
+    private UUID userId;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        userId = UUID.randomUUID();
+        token = jwtUtil.generateToken(userId, "bench-user");
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtUtil.generateToken(userId, "bench-user");
+    }
+
+    // Single verified parse, as done by JwtPrincipalCache on a miss
+    @Benchmark
+    public Claims parseClaims() {
+        return jwtUtil.parseClaims(token);
+    }
+
+    // extractUsername + validateToken: three parses of the same token
+    @Benchmark
+    public Boolean extractAndValidate() {
+        String username = jwtUtil.extractUsername(token);
+        return jwtUtil.validateToken(token, username);
+    }
+}
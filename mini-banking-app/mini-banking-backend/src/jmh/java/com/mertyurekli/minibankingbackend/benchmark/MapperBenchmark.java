@@ -0,0 +1,65 @@
+package com.mertyurekli.minibankingbackend.benchmark;
+
+import com.mertyurekli.minibankingbackend.dto.AccountDto;
+import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+import com.mertyurekli.minibankingbackend.entity.Transaction;
+import com.mertyurekli.minibankingbackend.mapper.AccountMapper;
+import com.mertyurekli.minibankingbackend.mapper.TransactionMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+
+    private Account account;
+    private Transaction transaction;
+    private AccountDto newAccountDto;
+
+    @Setup
+    public void setUp() {
+        LocalDateTime now = LocalDateTime.now();
+        account = new Account();
+        account.setId(UUID.randomUUID());
+        account.setNumber("1234567890");
+        account.setName("Main");
+        account.setBalance(new BigDecimal("1500.25"));
+        account.setType(AccountType.SAVING);
+        account.setCreatedAt(now);
+        account.setUpdatedAt(now);
+
+        Account counterparty = new Account();
+        counterparty.setId(UUID.randomUUID());
+        counterparty.setNumber("0987654321");
+        transaction = new Transaction(42L, account, counterparty, new BigDecimal("10.00"), now, "SUCCESS",
+                new BigDecimal("1490.25"), new BigDecimal("10.00"), null);
+
+        // Numbers are generated by AccountNumberGenerator now; see AccountNumberBenchmark
+        newAccountDto = new AccountDto(null, "00000010009", "New", BigDecimal.ZERO, AccountType.SAVING, null, null);
+    }
+
+    @Benchmark
+    public AccountDto mapToAccountDto() {
+        return AccountMapper.mapToAccountDto(account);
+    }
+
+    @Benchmark
+    public TransactionDto mapToTransactionDto() {
+        return TransactionMapper.mapToTransactionDto(transaction, account.getId());
+    }
+
+    @Benchmark
+    public Account mapToAccount() {
+        return AccountMapper.mapToAccount(newAccountDto);
+    }
+}
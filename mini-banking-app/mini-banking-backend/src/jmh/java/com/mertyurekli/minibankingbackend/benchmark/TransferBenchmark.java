@@ -0,0 +1,105 @@
+package com.mertyurekli.minibankingbackend.benchmark;
+
+import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
+import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+import com.mertyurekli.minibankingbackend.entity.User;
+import com.mertyurekli.minibankingbackend.exception.ConflictException;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.UserRepository;
+import com.mertyurekli.minibankingbackend.service.LedgerEngine;
+import com.mertyurekli.minibankingbackend.service.TransactionService;
+import com.mertyurekli.minibankingbackend.service.impl.InMemoryLedgerEngine;
+import com.mertyurekli.minibankingbackend.service.impl.JpaLedgerEngine;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+@Threads(8)
+public class TransferBenchmark {
+
+    // "in-memory" needs a PostgreSQL datasource (-Dbench.datasource.url) for its flusher
+    @Param({"jpa"})
+    public String engine;
+
+    // ledger.jpa.concurrency for the jpa engine; "atomic" uses UPDATE ... RETURNING and needs PostgreSQL
+    @Param({"pessimistic", "optimistic"})
+    public String concurrency;
+
+    // Few accounts means high contention on the same rows; many accounts means mostly disjoint transfers
+    @Param({"2", "1000"})
+    public int accountCount;
+
+    private ConfigurableApplicationContext context;
+    private TransactionService transactionService;
+    private List<String> accountNumbers;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        context = BenchmarkContext.start(engine, Map.of("ledger.jpa.concurrency", concurrency));
+        verifyLedgerEngine(context.getBean(LedgerEngine.class));
+        transactionService = context.getBean(TransactionService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+
+        LocalDateTime now = LocalDateTime.now();
+        User user = userRepository.save(new User(null, "bench-" + UUID.randomUUID(), "x", "bench@example.com", now, now));
+        accountNumbers = new ArrayList<>(accountCount);
+        for (int i = 0; i < accountCount; i++) {
+            Account account = new Account();
+            account.setNumber(String.format("9%09d", i));
+            account.setName("bench-" + i);
+            account.setBalance(new BigDecimal("1000000000.00"));
+            account.setType(AccountType.SAVING);
+            account.setCreatedAt(now);
+            account.setUpdatedAt(now);
+            account.setUser(user);
+            accountNumbers.add(accountRepository.save(account).getNumber());
+        }
+    }
+
+    // Guards against the parameters silently losing to application.properties
+    private void verifyLedgerEngine(LedgerEngine ledgerEngine) {
+        Class<?> expected = "in-memory".equals(engine) ? InMemoryLedgerEngine.class : JpaLedgerEngine.class;
+        if (!expected.isInstance(ledgerEngine)) {
+            throw new IllegalStateException("Expected " + expected.getSimpleName() + " for engine=" + engine
+                    + " but got " + ledgerEngine.getClass().getName());
+        }
+        if (ledgerEngine instanceof JpaLedgerEngine jpaLedgerEngine && !jpaLedgerEngine.getConcurrency().equals(concurrency)) {
+            throw new IllegalStateException("Expected concurrency=" + concurrency
+                    + " but the ledger runs " + jpaLedgerEngine.getConcurrency());
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public void transferMoney() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int from = random.nextInt(accountCount);
+        int to = (from + 1 + random.nextInt(accountCount - 1)) % accountCount;
+        try {
+            transactionService.transferMoney(new TransferRequestDto(accountNumbers.get(from), accountNumbers.get(to), 1.0));
+        } catch (ConflictException e) {
+            // Optimistic transfers that ran out of retries; banking.transfers.conflicts counts them
+        }
+    }
+}
@@ -0,0 +1,65 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import com.mertyurekli.minibankingbackend.dto.AccountImportErrorDto;
+import com.mertyurekli.minibankingbackend.dto.AccountImportResultDto;
+import com.mertyurekli.minibankingbackend.service.AccountImportService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Command-line account import for migrations, e.g.
+ * java -jar app.jar --spring.main.web-application-type=none --account.import.file=/data/accounts.csv
+ * Rows carry a username column naming the owner. Running the same command again resumes an interrupted import;
+ * the application exits once the file is done.
+ */
+@Component
+@ConditionalOnProperty(name = "account.import.file")
+public class AccountImportRunner implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AccountImportRunner.class);
+
+    private final AccountImportService accountImportService;
+    private final ConfigurableApplicationContext context;
+    private final Path file;
+    private final String importId;
+
+    public AccountImportRunner(AccountImportService accountImportService,
+                               ConfigurableApplicationContext context,
+                               @Value("${account.import.file}") Path file,
+                               @Value("${account.import.id:}") String importId) {
+        this.accountImportService = accountImportService;
+        this.context = context;
+        this.file = file;
+        this.importId = importId.isBlank() ? file.getFileName().toString() : importId;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        String format = file.getFileName().toString().toLowerCase().endsWith(".ndjson") ? "ndjson" : "csv";
+        AccountImportResultDto result;
+        try (InputStream input = Files.newInputStream(file)) {
+            result = accountImportService.importAccountsWithOwners(importId, input, format);
+        }
+        for (AccountImportErrorDto error : result.getErrors()) {
+            logger.warn("{} line {}: {}", file, error.getLine(), error.getMessage());
+        }
+        if (result.isErrorsTruncated()) {
+            logger.warn("{}: further rejected rows not listed, see account.import.max-reported-errors", file);
+        }
+        logger.info("Import {} finished: {} rows, {} imported, {} rejected (resumed after row {})",
+                importId, result.getRowsProcessed(), result.getRowsImported(), result.getRowsFailed(),
+                result.getResumedAfterRow());
+        System.exit(SpringApplication.exit(context));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import java.security.Principal;
+import java.util.UUID;
+
+// Principal placed in the SecurityContext by JwtAuthenticationFilter; the id comes from the token's userId claim
+public record AuthenticatedUser(UUID id, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return username;
+    }
+}
@@ -0,0 +1,35 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import com.mertyurekli.minibankingbackend.exception.ResourceNotFoundException;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+
+// The user resolved by JwtAuthenticationFilter for the current request, without another database lookup
+@Component
+public class AuthenticatedUserContext {
+
+    public AuthenticatedUser getCurrentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof AuthenticatedUser user)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        return user;
+    }
+
+    public UUID getCurrentUserId() {
+        return getCurrentUser().id();
+    }
+
+    // For code that also runs outside a request, e.g. scheduled jobs and command-line runners
+    public Optional<UUID> findCurrentUserId() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedUser user) {
+            return Optional.of(user.id());
+        }
+        return Optional.empty();
+    }
+}
\ No newline at end of file
@@ -1,69 +1,88 @@
 package com.mertyurekli.minibankingbackend.config;
 
-import com.mertyurekli.minibankingbackend.util.JwtUtil;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.lang.NonNull;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Collections;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
-    private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
+    // EventSource cannot set headers, so the notification stream alone accepts a single-use ticket in the query
+    // string; JWTs are never read from the URL, where they would end up in access and proxy logs
+    private static final String EVENT_STREAM_PATH = "/api/notifications/stream";
+    private static final String TICKET_PARAMETER = "ticket";
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil, UserDetailsService userDetailsService) {
-        this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
+    private final JwtPrincipalCache principalCache;
+    private final StreamTicketStore streamTicketStore;
+
+    public JwtAuthenticationFilter(JwtPrincipalCache principalCache, StreamTicketStore streamTicketStore) {
+        this.principalCache = principalCache;
+        this.streamTicketStore = streamTicketStore;
     }
 
     @Override
     protected void doFilterInternal(@NonNull HttpServletRequest request, @NonNull HttpServletResponse response, @NonNull FilterChain filterChain)
             throws ServletException, IOException {
         
-        final String authHeader = request.getHeader("Authorization");
+        final String jwt = resolveToken(request);
+        final String ticket = jwt == null ? resolveStreamTicket(request) : null;
         
-        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+        if (jwt == null && ticket == null) {
             filterChain.doFilter(request, response);
             return;
         }
 
         try {
-            final String jwt = authHeader.substring(7);
-            
-            // Check if JWT token is not empty
-            if (jwt == null || jwt.trim().isEmpty()) {
-                filterChain.doFilter(request, response);
-                return;
-            }
-            
-            final String username = jwtUtil.extractUsername(jwt);
-            
-            if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                UserDetails userDetails = userDetailsService.loadUserByUsername(username);
-                
-                if (jwtUtil.validateToken(jwt, username)) {
+            if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                // Parses and verifies the token at most once; repeat requests with the same token are a cache hit
+                AuthenticatedUser user = jwt != null ? principalCache.resolve(jwt) : streamTicketStore.redeem(ticket);
+                // Unknown, expired or reused tickets leave the request unauthenticated
+                if (user != null) {
                     UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
+                        user, null, Collections.emptyList());
                     authToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     SecurityContextHolder.getContext().setAuthentication(authToken);
                 }
             }
+        } catch (JwtException | UsernameNotFoundException e) {
+            // Expired, malformed or revoked tokens are routine client errors; the stack trace adds nothing
+            logger.debug("Rejected JWT: " + e.getMessage());
         } catch (Exception e) {
-            logger.error("Cannot set user authentication: {}", e);
+            logger.error("Cannot set user authentication", e);
             // Continue with the filter chain even if JWT processing fails
         }
 
         filterChain.doFilter(request, response);
     }
+
+    // Null when the request carries no token; never blank
+    private String resolveToken(HttpServletRequest request) {
+        final String authHeader = request.getHeader("Authorization");
+        if (authHeader != null && authHeader.startsWith("Bearer ")) {
+            String token = authHeader.substring(7);
+            return StringUtils.hasText(token) ? token : null;
+        }
+        return null;
+    }
+
+    private String resolveStreamTicket(HttpServletRequest request) {
+        if (!EVENT_STREAM_PATH.equals(request.getRequestURI())) {
+            return null;
+        }
+        String ticket = request.getParameter(TICKET_PARAMETER);
+        return StringUtils.hasText(ticket) ? ticket : null;
+    }
 } 
\ No newline at end of file
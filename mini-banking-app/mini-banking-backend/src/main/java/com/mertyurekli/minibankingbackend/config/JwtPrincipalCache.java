@@ -0,0 +1,101 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mertyurekli.minibankingbackend.entity.User;
+import com.mertyurekli.minibankingbackend.repository.UserRepository;
+import com.mertyurekli.minibankingbackend.util.JwtUtil;
+import io.jsonwebtoken.Claims;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Verified tokens and the principal they resolve to. An entry lives until its token expires
+ * (or for security.jwt.principal-cache.max-ttl when set), so a cached token skips both the
+ * signature check and the user lookup.
+ */
+@Component
+public class JwtPrincipalCache {
+
+    private final JwtUtil jwtUtil;
+    private final UserRepository userRepository;
+    private final Duration maxTtl;
+    private final Cache<String, CachedPrincipal> cache;
+
+    public JwtPrincipalCache(JwtUtil jwtUtil,
+                             UserRepository userRepository,
+                             MeterRegistry meterRegistry,
+                             @Value("${security.jwt.principal-cache.max-size:10000}") long maxSize,
+                             @Value("${security.jwt.principal-cache.max-ttl:0s}") Duration maxTtl) {
+        this.jwtUtil = jwtUtil;
+        this.userRepository = userRepository;
+        this.maxTtl = maxTtl;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwt.principals");
+    }
+
+    // Throws the underlying JwtException for invalid or expired tokens; those are never cached
+    public AuthenticatedUser resolve(String token) {
+        CachedPrincipal cached = cache.getIfPresent(token);
+        if (cached == null) {
+            // Loaded outside cache.get: its mapping function runs inside a synchronized map bin, and a JDBC call
+            // there would pin a virtual thread. Two concurrent misses for the same token just both load it.
+            cached = load(token);
+            cache.put(token, cached);
+        }
+        return cached.user();
+    }
+
+    // Cached principals outlive a username or password change, so drop them when the user is updated
+    public void invalidateUser(String username) {
+        cache.asMap().values().removeIf(principal -> principal.user().username().equals(username));
+    }
+
+    private CachedPrincipal load(String token) {
+        Claims claims = jwtUtil.parseClaims(token);
+        UUID userId = UUID.fromString(claims.get("userId", String.class));
+        // A renamed or deleted user no longer matches the token subject
+        User user = userRepository.findById(userId)
+                .filter(found -> found.getUsername().equals(claims.getSubject()))
+                .orElseThrow(() -> new UsernameNotFoundException("User not found: " + claims.getSubject()));
+        Instant expiresAt = claims.getExpiration().toInstant();
+        if (!maxTtl.isZero()) {
+            Instant capped = Instant.now().plus(maxTtl);
+            expiresAt = capped.isBefore(expiresAt) ? capped : expiresAt;
+        }
+        return new CachedPrincipal(new AuthenticatedUser(user.getId(), user.getUsername()), expiresAt);
+    }
+
+    private record CachedPrincipal(AuthenticatedUser user, Instant expiresAt) {
+    }
+
+    private static final class TokenExpiry implements Expiry<String, CachedPrincipal> {
+
+        @Override
+        public long expireAfterCreate(String token, CachedPrincipal principal, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), principal.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(String token, CachedPrincipal principal, long currentTime, long currentDuration) {
+            return expireAfterCreate(token, principal, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String token, CachedPrincipal principal, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
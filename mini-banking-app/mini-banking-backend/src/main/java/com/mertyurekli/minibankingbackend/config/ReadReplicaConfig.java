@@ -0,0 +1,88 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+/**
+ * Replaces the single auto-configured pool with a primary pool for writes and one pool per read replica.
+ * Hibernate only takes a JDBC connection at the first statement, after a @Transactional(readOnly = true) method
+ * has flagged it read-only, so LazyConnectionDataSourceProxy can hand those transactions to the replicas.
+ * Everything else, including reads outside a read-only transaction and Flyway, stays on the primary.
+ */
+@Configuration
+@ConditionalOnProperty(name = "datasource.replicas.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    private final Environment environment;
+    private final MeterRegistry meterRegistry;
+    private final List<HikariDataSource> pools = new ArrayList<>();
+
+    public ReadReplicaConfig(Environment environment, MeterRegistry meterRegistry) {
+        this.environment = environment;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(DataSourceProperties properties,
+                                 ReadYourWritesTracker readYourWritesTracker,
+                                 @Value("${datasource.replicas.urls}") List<String> replicaUrls,
+                                 @Value("${datasource.replicas.username:${spring.datasource.username}}") String username,
+                                 @Value("${datasource.replicas.password:${spring.datasource.password}}") String password,
+                                 @Value("${datasource.replicas.maximum-pool-size:0}") int replicaPoolSize) {
+        if (replicaUrls.isEmpty()) {
+            throw new IllegalStateException("datasource.replicas.enabled is set but datasource.replicas.urls is empty");
+        }
+        HikariDataSource primary = pool(ReplicaRoutingDataSource.PRIMARY, properties.determineUrl(),
+                properties.determineUsername(), properties.determinePassword());
+        LinkedHashMap<String, DataSource> replicas = new LinkedHashMap<>();
+        for (int i = 0; i < replicaUrls.size(); i++) {
+            HikariDataSource replica = pool("replica-" + i, replicaUrls.get(i).trim(), username, password);
+            if (replicaPoolSize > 0) {
+                replica.setMaximumPoolSize(replicaPoolSize);
+            }
+            replicas.put(replica.getPoolName(), replica);
+        }
+
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(
+                new ReplicaRoutingDataSource(primary, replicas, readYourWritesTracker, meterRegistry));
+        return dataSource;
+    }
+
+    private HikariDataSource pool(String name, String url, String username, String password) {
+        HikariDataSource pool = new HikariDataSource();
+        // Every pool gets the spring.datasource.hikari.* settings the single pool had
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(pool));
+        pool.setPoolName(name);
+        pool.setJdbcUrl(url);
+        pool.setUsername(username);
+        pool.setPassword(password);
+        // hikaricp.connections.* meters tagged with pool=<name>; Boot only instruments the pools it creates itself
+        pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+        pools.add(pool);
+        return pool;
+    }
+
+    @PreDestroy
+    public void close() {
+        pools.forEach(HikariDataSource::close);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,51 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Users who changed something in the last datasource.replicas.read-your-writes-window. Their read-only
+ * transactions go to the primary, so a transfer or a new account is never missing from the next page
+ * because a replica has not replayed it yet. The window is per node: pin users to a node at the load
+ * balancer, or keep replica lag well below the window, for the guarantee to hold across nodes.
+ */
+@Component
+public class ReadYourWritesTracker {
+
+    private final AuthenticatedUserContext authenticatedUserContext;
+    private final boolean enabled;
+    private final Cache<UUID, Boolean> recentWriters;
+
+    public ReadYourWritesTracker(AuthenticatedUserContext authenticatedUserContext,
+                                 @Value("${datasource.replicas.enabled:false}") boolean enabled,
+                                 @Value("${datasource.replicas.read-your-writes-window:5s}") Duration window,
+                                 @Value("${datasource.replicas.read-your-writes-max-users:100000}") long maxUsers) {
+        this.authenticatedUserContext = authenticatedUserContext;
+        this.enabled = enabled;
+        this.recentWriters = Caffeine.newBuilder()
+                .expireAfterWrite(window)
+                .maximumSize(maxUsers)
+                .build();
+    }
+
+    // Call after the write has committed, so the window starts no earlier than the data exists
+    public void recordWrite() {
+        if (enabled) {
+            authenticatedUserContext.findCurrentUserId().ifPresent(userId -> recentWriters.put(userId, Boolean.TRUE));
+        }
+    }
+
+    public boolean requiresPrimary() {
+        if (!enabled) {
+            return false;
+        }
+        Optional<UUID> userId = authenticatedUserContext.findCurrentUserId();
+        return userId.isPresent() && recentWriters.getIfPresent(userId.get()) != null;
+    }
+}
\ No newline at end of file
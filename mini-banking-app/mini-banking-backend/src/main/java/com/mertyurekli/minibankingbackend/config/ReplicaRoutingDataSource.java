@@ -0,0 +1,51 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Picks the pool for a read-only transaction: round robin over the replicas, or the primary inside a read-your-writes window
+class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    static final String PRIMARY = "primary";
+
+    private final List<String> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final Map<String, Counter> reads = new HashMap<>();
+    private final AtomicInteger next = new AtomicInteger();
+
+    ReplicaRoutingDataSource(DataSource primary,
+                             LinkedHashMap<String, DataSource> replicas,
+                             ReadYourWritesTracker readYourWritesTracker,
+                             MeterRegistry meterRegistry) {
+        this.replicas = List.copyOf(replicas.keySet());
+        this.readYourWritesTracker = readYourWritesTracker;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        for (Object pool : targets.keySet()) {
+            reads.put((String) pool, Counter.builder("banking.datasource.reads")
+                    .description("Read-only transactions by the connection pool they were routed to")
+                    .tag("pool", (String) pool)
+                    .register(meterRegistry));
+        }
+        setTargetDataSources(targets);
+        setLenientFallback(false);
+        afterPropertiesSet();
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String pool = readYourWritesTracker.requiresPrimary()
+                ? PRIMARY
+                : replicas.get(Math.floorMod(next.getAndIncrement(), replicas.size()));
+        reads.get(pool).increment();
+        return pool;
+    }
+}
\ No newline at end of file
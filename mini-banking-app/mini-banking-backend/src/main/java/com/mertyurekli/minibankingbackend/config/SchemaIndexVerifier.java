@@ -0,0 +1,52 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+// Fails startup when an index the hot queries rely on is missing, e.g. after a failed CONCURRENTLY build
+@Component
+@ConditionalOnProperty(name = "schema.index-check.enabled", havingValue = "true", matchIfMissing = true)
+public class SchemaIndexVerifier implements ApplicationRunner {
+
+    private static final List<String> EXPECTED_INDEXES = List.of(
+            "idx_transactions_from_account_date",
+            "idx_transactions_to_account_date",
+            "idx_accounts_user_id",
+            "idx_accounts_number_trgm",
+            "idx_accounts_name_trgm",
+            "idx_transactions_pending",
+            "idx_accounts_user_number_prefix"
+    );
+
+    // A CONCURRENTLY build that fails leaves an INVALID index behind that the planner never uses
+    private static final String VALID_INDEXES =
+            "SELECT c.relname FROM pg_index i " +
+            "JOIN pg_class c ON c.oid = i.indexrelid " +
+            "JOIN pg_namespace n ON n.oid = c.relnamespace " +
+            "WHERE n.nspname = current_schema() AND i.indisvalid";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SchemaIndexVerifier(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        Set<String> present = new HashSet<>(jdbcTemplate.queryForList(VALID_INDEXES, String.class));
+        List<String> missing = EXPECTED_INDEXES.stream()
+                .filter(index -> !present.contains(index))
+                .toList();
+        if (!missing.isEmpty()) {
+            throw new IllegalStateException("Missing or invalid database indexes: " + missing
+                    + ". Drop any invalid ones and re-run the Flyway migrations.");
+        }
+    }
+}
@@ -1,6 +1,11 @@
 package com.mertyurekli.minibankingbackend.config;
 
 import com.mertyurekli.minibankingbackend.util.JwtUtil;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.servlet.DispatcherType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
@@ -12,6 +17,8 @@ import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfigurationSource;
 
+import java.time.Duration;
+
 @Configuration
 @EnableWebSecurity
 public class SecurityConfig {
@@ -29,6 +36,8 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // Completion of SSE streams and streamed exports is re-dispatched without the stateless request's authentication
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/api/users/register", "/api/users/login").permitAll()
                 .requestMatchers("/api/**").authenticated()
                 .anyRequest().permitAll()
@@ -39,7 +48,14 @@ public class SecurityConfig {
     }
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength,
+                                           @Value("${security.password-hashing.threads:4}") int threads,
+                                           @Value("${security.password-hashing.queue-capacity:100}") int queueCapacity,
+                                           @Value("${security.password-hashing.wait-timeout:5s}") Duration waitTimeout,
+                                           MeterRegistry meterRegistry) {
+        BoundedPasswordEncoder encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(strength),
+                threads, queueCapacity, waitTimeout);
+        new ExecutorServiceMetrics(encoder.getExecutor(), "password.hashing", Tags.empty()).bindTo(meterRegistry);
+        return encoder;
     }
 } 
\ No newline at end of file
@@ -0,0 +1,43 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import com.mertyurekli.minibankingbackend.dto.StatementRunReportDto;
+import com.mertyurekli.minibankingbackend.service.StatementService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+/**
+ * Command-line statement run for a maintenance window, e.g.
+ * java -jar app.jar --spring.main.web-application-type=none --statement.period=2026-09
+ * Running the same command again after a failure resumes from the partition checkpoints. The application exits
+ * when the run is done, with status 1 if any partition failed.
+ */
+@Component
+@ConditionalOnProperty(name = "statement.period")
+public class StatementRunner implements ApplicationRunner {
+
+    private final StatementService statementService;
+    private final ConfigurableApplicationContext context;
+    private final YearMonth period;
+
+    public StatementRunner(StatementService statementService,
+                           ConfigurableApplicationContext context,
+                           @Value("${statement.period}") String period) {
+        this.statementService = statementService;
+        this.context = context;
+        this.period = YearMonth.parse(period);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        StatementRunReportDto report = statementService.generateStatements(period);
+        int failed = report.getPartitionsFailed();
+        System.exit(SpringApplication.exit(context, () -> failed == 0 ? 0 : 1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,77 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Short-lived, single-use tickets for the notification stream. EventSource cannot send an Authorization
+ * header, so the client trades its JWT for a ticket and puts that in the query string instead; a ticket
+ * that ends up in an access log is already spent or about to expire.
+ * <p>
+ * Tickets live in the stream_tickets table rather than in memory, so the stream can be opened on any node,
+ * not just the one that issued the ticket. Redeeming deletes the row, which keeps a ticket single-use across nodes.
+ */
+@Component
+public class StreamTicketStore {
+
+    private final SecureRandom random = new SecureRandom();
+    private final JdbcTemplate jdbcTemplate;
+    private final Duration ttl;
+
+    public StreamTicketStore(JdbcTemplate jdbcTemplate,
+                             @Value("${notifications.sse.ticket-ttl:30s}") Duration ttl) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ttl = ttl;
+    }
+
+    public String issue(AuthenticatedUser user) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        jdbcTemplate.update("INSERT INTO stream_tickets (ticket_hash, user_id, username, expires_at) VALUES (?, ?, ?, ?)",
+                hash(ticket), user.id(), user.username(), Timestamp.valueOf(LocalDateTime.now().plus(ttl)));
+        return ticket;
+    }
+
+    // Null for unknown, expired or already used tickets
+    public AuthenticatedUser redeem(String ticket) {
+        List<AuthenticatedUser> users = jdbcTemplate.query(
+                "DELETE FROM stream_tickets WHERE ticket_hash = ? AND expires_at > ? RETURNING user_id, username",
+                (rs, rowNum) -> new AuthenticatedUser(rs.getObject("user_id", UUID.class), rs.getString("username")),
+                hash(ticket), Timestamp.valueOf(LocalDateTime.now()));
+        return users.isEmpty() ? null : users.get(0);
+    }
+
+    // Expired tickets are never redeemed, so they are only ever removed here
+    @Scheduled(fixedDelayString = "${notifications.sse.ticket-cleanup-interval:PT5M}")
+    public void deleteExpiredTickets() {
+        jdbcTemplate.update("DELETE FROM stream_tickets WHERE expires_at <= ?", Timestamp.valueOf(LocalDateTime.now()));
+    }
+
+    public Duration getTtl() {
+        return ttl;
+    }
+
+    private static String hash(String ticket) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(ticket.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
\ No newline at end of file
@@ -1,17 +1,28 @@
 package com.mertyurekli.minibankingbackend.controller;
 
+import com.mertyurekli.minibankingbackend.dto.AccountBalanceDto;
 import com.mertyurekli.minibankingbackend.dto.AccountDto;
+import com.mertyurekli.minibankingbackend.dto.AccountImportResultDto;
+import com.mertyurekli.minibankingbackend.dto.AccountPageDto;
+import com.mertyurekli.minibankingbackend.service.AccountImportService;
 import com.mertyurekli.minibankingbackend.service.AccountService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.AllArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import java.util.logging.Logger;
 
 @AllArgsConstructor
 @RestController
@@ -19,8 +30,10 @@ import java.util.logging.Logger;
 @Tag(name = "Account Management", description = "APIs for account operations")
 public class AccountController {
 
-    private static final Logger logger = Logger.getLogger(AccountController.class.getName());
+    private static final Logger logger = LoggerFactory.getLogger(AccountController.class);
+    private static final String NEXT_PAGE_HEADER = "X-Next-Page";
     private AccountService accountService;
+    private AccountImportService accountImportService;
 
     @Operation(summary = "Create account", description = "Creates a new account for the authenticated user")
     @PostMapping
@@ -29,11 +42,27 @@ public class AccountController {
         return new ResponseEntity<>(savedAccount, HttpStatus.CREATED);
     }
 
-    @Operation(summary = "Search accounts", description = "Search accounts for the authenticated user")
+    @Operation(summary = "Import accounts", description = "Streams a CSV body (header with name, balance, type and optionally number) or NDJSON and creates the accounts for the authenticated user in batches. Rejected rows are reported by line number. Re-sending the same importId resumes after the last committed batch")
+    @PostMapping(value = "/import", consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<AccountImportResultDto> importAccounts(@RequestParam("importId") String importId,
+                                                                 @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                                 InputStream body) throws IOException {
+        String format = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.APPLICATION_NDJSON) ? "ndjson" : "csv";
+        AccountImportResultDto result = accountImportService.importAccounts(importId, body, format);
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Search accounts", description = "Searches the authenticated user's accounts by number prefix or (fuzzy) name, best matches first; an empty term lists all accounts by number. Returns one page; the next page index is returned in the X-Next-Page header")
     @PostMapping("/search")
-    public ResponseEntity<List<AccountDto>> searchAccounts(@RequestParam String searchTerm) {
-        List<AccountDto> accounts = accountService.searchAccounts(searchTerm);
-        return ResponseEntity.ok(accounts);
+    public ResponseEntity<List<AccountDto>> searchAccounts(@RequestParam String searchTerm,
+                                                           @RequestParam(value = "page", required = false) Integer page,
+                                                           @RequestParam(value = "size", required = false) Integer size) {
+        AccountPageDto accounts = accountService.searchAccounts(searchTerm, page, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (accounts.getNextPage() != null) {
+            response.header(NEXT_PAGE_HEADER, String.valueOf(accounts.getNextPage()));
+        }
+        return response.body(accounts.getAccounts());
     }
 
     @Operation(summary = "Get account by number", description = "Retrieves account details by account number")
@@ -50,6 +79,15 @@ public class AccountController {
         return ResponseEntity.ok(accountDto);
     }
 
+    @Operation(summary = "Get balance as of a point in time", description = "Returns the account balance at the given time, or now when omitted. Times in archived months are rejected with 400")
+    @GetMapping("/{id}/balance")
+    public ResponseEntity<AccountBalanceDto> getBalanceAsOf(@PathVariable("id") UUID accountId,
+                                                            @RequestParam(value = "at", required = false)
+                                                            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        AccountBalanceDto balance = accountService.getBalanceAsOf(accountId, at == null ? LocalDateTime.now() : at);
+        return ResponseEntity.ok(balance);
+    }
+
     @Operation(summary = "Update account", description = "Updates the selected account for the authenticated user")
     @PutMapping("/{id}")
     public ResponseEntity<AccountDto> updateAccount(@PathVariable("id") UUID accountId, @RequestBody AccountDto accountDto) {
@@ -60,26 +98,15 @@ public class AccountController {
     @Operation(summary = "Delete account", description = "Deletes the selected account for the authenticated user")
     @DeleteMapping("/{id}")
     public ResponseEntity<String> deleteAccount(@PathVariable("id") String accountId) {
-        logger.info("Delete endpoint called with accountId: " + accountId);
-        logger.info("AccountId type: " + accountId.getClass().getSimpleName());
-        
         try {
-            logger.info("Attempting to parse UUID from: " + accountId);
             UUID uuid = UUID.fromString(accountId);
-            logger.info("Successfully parsed UUID: " + uuid);
-            
-            logger.info("Calling accountService.deleteAccount with UUID: " + uuid);
             accountService.deleteAccount(uuid);
-            logger.info("Account deleted successfully");
-            
             return ResponseEntity.ok("Account deleted successfully");
         } catch (IllegalArgumentException e) {
-            logger.severe("Invalid UUID format: " + accountId + ", Error: " + e.getMessage());
             return ResponseEntity.badRequest().body("Invalid account ID format: " + e.getMessage());
         } catch (Exception e) {
-            logger.severe("Unexpected error during account deletion: " + e.getMessage());
-            e.printStackTrace();
+            logger.error("Unexpected error deleting account {}", accountId, e);
             return ResponseEntity.status(500).body("Internal server error: " + e.getMessage());
         }
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package com.mertyurekli.minibankingbackend.controller;
+
+import com.mertyurekli.minibankingbackend.dto.DashboardDto;
+import com.mertyurekli.minibankingbackend.service.DashboardService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/dashboard")
+@Tag(name = "Dashboard", description = "Aggregated overview for the dashboard page")
+public class DashboardController {
+
+    private DashboardService dashboardService;
+
+    @Operation(summary = "Get dashboard", description = "Returns all accounts of the authenticated user, balance totals per account type and the latest transactions of every account (recent, default 5, at most 20) in one response")
+    @GetMapping
+    public ResponseEntity<DashboardDto> getDashboard(@RequestParam(value = "recent", required = false) Integer recent) {
+        DashboardDto dashboard = dashboardService.getDashboard(recent);
+        return ResponseEntity.ok(dashboard);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package com.mertyurekli.minibankingbackend.controller;
+
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.config.StreamTicketStore;
+import com.mertyurekli.minibankingbackend.dto.StreamTicketDto;
+import com.mertyurekli.minibankingbackend.service.NotificationService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.AllArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@AllArgsConstructor
+@RestController
+@RequestMapping("/api/notifications")
+@Tag(name = "Notifications", description = "Server-sent events for the authenticated user's accounts")
+public class NotificationController {
+
+    private NotificationService notificationService;
+    private StreamTicketStore streamTicketStore;
+    private AuthenticatedUserContext authenticatedUserContext;
+
+    @Operation(summary = "Get a notification stream ticket", description = "Returns a short-lived, single-use ticket for opening the notification stream. EventSource cannot send headers, so the ticket goes in the stream URL instead of the JWT")
+    @PostMapping("/ticket")
+    public ResponseEntity<StreamTicketDto> issueStreamTicket() {
+        String ticket = streamTicketStore.issue(authenticatedUserContext.getCurrentUser());
+        return ResponseEntity.ok(new StreamTicketDto(ticket, streamTicketStore.getTtl().toSeconds()));
+    }
+
+    @Operation(summary = "Subscribe to account updates", description = "Streams 'transaction' (TransactionDto) and 'balance' (AccountBalanceDto) events for the authenticated user's accounts. Authenticate with a ticket from POST /api/notifications/ticket in the ticket query parameter")
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter subscribe() {
+        return notificationService.subscribe();
+    }
+}
\ No newline at end of file
@@ -1,37 +1,144 @@
 package com.mertyurekli.minibankingbackend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.dto.TransactionPageDto;
 import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
+import com.mertyurekli.minibankingbackend.dto.TransferResultDto;
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
+import com.mertyurekli.minibankingbackend.service.IdempotencyService;
 import com.mertyurekli.minibankingbackend.service.TransactionService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import lombok.AllArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.YearMonth;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
-@AllArgsConstructor
 @RestController
 @RequestMapping("/api/transactions")
 @Tag(name = "Transaction Management", description = "APIs for money transfers and transaction history")
 public class TransactionController {
 
-    private TransactionService transactionService;
+    private static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
 
-    @Operation(summary = "Initiate money transfer", description = "Transfers money from one account to another")
+    private final TransactionService transactionService;
+    private final IdempotencyService idempotencyService;
+    private final ObjectMapper objectMapper;
+    private final boolean asyncTransfers;
+
+    public TransactionController(TransactionService transactionService,
+                                 IdempotencyService idempotencyService,
+                                 ObjectMapper objectMapper,
+                                 @Value("${transfer.async.enabled:false}") boolean asyncTransfers) {
+        this.transactionService = transactionService;
+        this.idempotencyService = idempotencyService;
+        this.objectMapper = objectMapper;
+        this.asyncTransfers = asyncTransfers;
+    }
+
+    @Operation(summary = "Initiate money transfer", description = "Transfers money from one account to another. With transfer.async.enabled the transfer is queued and 202 Accepted is returned with its id and a Location to poll. Retries with the same Idempotency-Key header return the original result")
     @PostMapping("/transfer")
-    public ResponseEntity<?> transferMoney(@RequestBody TransferRequestDto dto) {
-        transactionService.transferMoney(dto);
-        return ResponseEntity.ok("Transfer successful");
+    public ResponseEntity<?> transferMoney(@RequestBody TransferRequestDto dto,
+                                           @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, dto, () -> {
+            if (asyncTransfers) {
+                TransactionDto queued = transactionService.submitTransfer(dto);
+                return ResponseEntity.accepted()
+                        .location(URI.create("/api/transactions/transfers/" + queued.getId()))
+                        .body(queued);
+            }
+            transactionService.transferMoney(dto);
+            return ResponseEntity.ok("Transfer successful");
+        });
     }
 
-    @Operation(summary = "View transaction history", description = "Retrieves the transaction history for a specified account")
+    @Operation(summary = "Get transfer status", description = "Returns a transfer with its status: PENDING while queued, then SUCCESS or FAILED with a failure reason")
+    @GetMapping("/transfers/{transferId}")
+    public ResponseEntity<TransactionDto> getTransfer(@PathVariable("transferId") Long transferId) {
+        return ResponseEntity.ok(transactionService.getTransfer(transferId));
+    }
+
+    @Operation(summary = "Initiate batch money transfer", description = "Applies a list of transfers and returns a status for each item")
+    @PostMapping("/transfer/batch")
+    public ResponseEntity<?> transferMoneyBatch(@RequestBody List<TransferRequestDto> dtos,
+                                                @RequestHeader(value = IDEMPOTENCY_KEY_HEADER, required = false) String idempotencyKey) {
+        return idempotencyService.execute(idempotencyKey, dtos, () -> {
+            List<TransferResultDto> results = transactionService.transferMoneyBatch(dtos);
+            return ResponseEntity.ok(results);
+        });
+    }
+
+    @Operation(summary = "View transaction history", description = "Retrieves one page of the transaction history for a specified account, newest first. The cursor for the next page is returned in the X-Next-Cursor header")
     @GetMapping("/account/{accountId}")
-    public ResponseEntity<List<TransactionDto>> getTransactionHistory(@PathVariable("accountId") UUID accountId) {
-        List<TransactionDto> transactions = transactionService.getTransactionHistory(accountId);
-        return ResponseEntity.ok(transactions);
+    public ResponseEntity<List<TransactionDto>> getTransactionHistory(@PathVariable("accountId") UUID accountId,
+                                                                      @RequestParam(value = "cursor", required = false) String cursor,
+                                                                      @RequestParam(value = "size", required = false) Integer size) {
+        TransactionPageDto page = transactionService.getTransactionHistory(accountId, cursor, size);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getTransactions());
+    }
+
+    @Operation(summary = "View archived transaction history", description = "Streams the transactions of a specified account from archived months (yyyy-MM, at most 12 per request) as NDJSON, oldest first. Months still in the database are served by the regular history endpoint")
+    @GetMapping("/account/{accountId}/archived")
+    public ResponseEntity<StreamingResponseBody> getArchivedTransactionHistory(@PathVariable("accountId") UUID accountId,
+                                                                               @RequestParam("from") YearMonth from,
+                                                                               @RequestParam("to") YearMonth to) {
+        // Opened here so a bad range is rejected before the response starts; files are read while streaming
+        Stream<TransactionDto> transactions = transactionService.streamArchivedTransactionHistory(accountId, from, to);
+        StreamingResponseBody body = outputStream -> {
+            try (transactions) {
+                Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+                Iterator<TransactionDto> iterator = transactions.iterator();
+                while (iterator.hasNext()) {
+                    writer.write(objectMapper.writeValueAsString(iterator.next()));
+                    writer.write('\n');
+                }
+                writer.flush();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Export transaction history", description = "Streams the full transaction history for a specified account as NDJSON or CSV")
+    @GetMapping("/account/{accountId}/export")
+    public ResponseEntity<StreamingResponseBody> exportTransactionHistory(@PathVariable("accountId") UUID accountId,
+                                                                          @RequestParam(value = "format", defaultValue = "ndjson") String format) {
+        MediaType mediaType;
+        if ("csv".equalsIgnoreCase(format)) {
+            mediaType = new MediaType("text", "csv");
+        } else if ("ndjson".equalsIgnoreCase(format)) {
+            mediaType = MediaType.APPLICATION_NDJSON;
+        } else {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+        StreamingResponseBody body = outputStream -> transactionService.exportTransactionHistory(accountId, format, outputStream);
+        return ResponseEntity.ok()
+                .contentType(mediaType)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"transactions-" + accountId + "." + format.toLowerCase() + "\"")
+                .body(body);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
@@ -0,0 +1,18 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountBalanceDto {
+    private UUID accountId;
+    private BigDecimal balance;
+    private LocalDateTime asOf;
+}
\ No newline at end of file
@@ -0,0 +1,13 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountImportErrorDto {
+    private long line;
+    private String message;
+}
\ No newline at end of file
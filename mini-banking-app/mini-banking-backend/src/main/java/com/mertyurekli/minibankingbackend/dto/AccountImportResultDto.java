@@ -0,0 +1,22 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+// Counts cover the whole import, including rows committed by earlier interrupted runs
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountImportResultDto {
+    private String importId;
+    private long resumedAfterRow;
+    private long rowsProcessed;
+    private long rowsImported;
+    private long rowsFailed;
+    // Only this run's rejected rows, capped at account.import.max-reported-errors
+    private List<AccountImportErrorDto> errors;
+    private boolean errorsTruncated;
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+// One line of an account import; username is only read by the command-line import
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountImportRowDto {
+    private String username;
+    private String number;
+    private String name;
+    private BigDecimal balance;
+    private String type;
+}
\ No newline at end of file
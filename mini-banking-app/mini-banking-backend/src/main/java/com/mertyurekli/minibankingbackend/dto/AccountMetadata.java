@@ -0,0 +1,11 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// The parts of an account that only change through updateAccount; the balance is deliberately not here
+public record AccountMetadata(UUID id, String number, String name, AccountType type, UUID userId,
+                              LocalDateTime createdAt) {
+}
\ No newline at end of file
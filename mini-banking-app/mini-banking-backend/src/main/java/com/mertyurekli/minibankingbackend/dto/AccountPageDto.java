@@ -0,0 +1,16 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AccountPageDto {
+    private List<AccountDto> accounts;
+    // Zero-based index of the next page, null on the last page
+    private Integer nextPage;
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Row projection for the native account queries, which cannot use a JPQL constructor expression
+public interface AccountView {
+    UUID getId();
+
+    String getNumber();
+
+    String getName();
+
+    BigDecimal getBalance();
+
+    AccountType getType();
+
+    LocalDateTime getCreatedAt();
+
+    LocalDateTime getUpdatedAt();
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DashboardDto {
+    private List<AccountDto> accounts;
+    private Map<AccountType, BigDecimal> balanceByType;
+    private BigDecimal totalBalance;
+    // Newest first, seen from the keyed account's side; accounts without transactions map to an empty list
+    private Map<UUID, List<TransactionDto>> recentTransactions;
+}
\ No newline at end of file
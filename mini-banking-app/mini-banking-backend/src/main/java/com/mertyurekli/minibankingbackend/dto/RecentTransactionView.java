@@ -0,0 +1,30 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// One of an account's latest transactions, with balanceAfter already taken from that account's side
+public interface RecentTransactionView {
+    UUID getAccountId();
+
+    Long getId();
+
+    UUID getFromAccountId();
+
+    UUID getToAccountId();
+
+    String getFromAccountNumber();
+
+    String getToAccountNumber();
+
+    BigDecimal getAmount();
+
+    LocalDateTime getTransactionDate();
+
+    String getStatus();
+
+    BigDecimal getBalanceAfter();
+
+    String getFailureReason();
+}
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Counts cover this run only; partitions finished by an earlier run of the period are skipped
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StatementRunReportDto {
+    private String period;
+    private int partitions;
+    private int partitionsSkipped;
+    private int partitionsFailed;
+    private long accounts;
+    private long transactions;
+    private long bytes;
+    private long elapsedMillis;
+    private double accountsPerSecond;
+    private double transactionsPerSecond;
+}
\ No newline at end of file
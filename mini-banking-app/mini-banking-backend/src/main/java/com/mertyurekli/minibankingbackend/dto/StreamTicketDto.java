@@ -0,0 +1,13 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamTicketDto {
+    private String ticket;
+    private long expiresInSeconds;
+}
\ No newline at end of file
@@ -0,0 +1,29 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+// Position in the (transaction_date DESC, id DESC) history order; a page resumes strictly after it
+public record TransactionCursor(LocalDateTime transactionDate, Long id) {
+
+    public String encode() {
+        String raw = transactionDate + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static TransactionCursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            return new TransactionCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (RuntimeException e) {
+            throw new BadRequestException("Invalid cursor: " + cursor);
+        }
+    }
+}
@@ -20,4 +20,6 @@ public class TransactionDto {
     private BigDecimal amount;
     private LocalDateTime transactionDate;
     private String status;
+    private BigDecimal balanceAfter;
+    private String failureReason;
 } 
\ No newline at end of file
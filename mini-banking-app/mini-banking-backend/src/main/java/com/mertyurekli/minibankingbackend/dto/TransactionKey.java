@@ -0,0 +1,10 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import java.time.LocalDateTime;
+
+// Position of a transaction row; the date lets follow-up lookups by id prune partitions
+public interface TransactionKey {
+    Long getId();
+
+    LocalDateTime getTransactionDate();
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransactionPageDto {
+    private List<TransactionDto> transactions;
+    // Opaque keyset cursor for the next (older) page, null on the last page
+    private String nextCursor;
+}
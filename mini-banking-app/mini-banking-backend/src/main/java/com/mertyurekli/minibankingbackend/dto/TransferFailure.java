@@ -0,0 +1,31 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import com.mertyurekli.minibankingbackend.exception.ConflictException;
+import com.mertyurekli.minibankingbackend.exception.InsufficientBalanceException;
+import com.mertyurekli.minibankingbackend.exception.ResourceNotFoundException;
+import org.springframework.dao.ConcurrencyFailureException;
+
+import java.util.Locale;
+
+// Why a transfer failed, set by the ledger engines on failed batch items and used as the metrics outcome tag
+public enum TransferFailure {
+    INSUFFICIENT_BALANCE, NOT_FOUND, CONFLICT, FAILED;
+
+    public static TransferFailure of(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException) {
+            return INSUFFICIENT_BALANCE;
+        }
+        if (e instanceof ResourceNotFoundException) {
+            return NOT_FOUND;
+        }
+        // Lock and version failures from a rolled back batch chunk count as conflicts too
+        if (e instanceof ConflictException || e instanceof ConcurrencyFailureException) {
+            return CONFLICT;
+        }
+        return FAILED;
+    }
+
+    public String tag() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TransferResultDto {
+    private int index;
+    private String fromAccountNumber;
+    private String toAccountNumber;
+    private double amount;
+    private String status;
+    private String message;
+    // Null for successful items
+    private TransferFailure failure;
+}
@@ -46,6 +46,11 @@ public class Account {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
+
+    // Checked on every JPA update; native balance updates bump it too so optimistic transfers see them
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
     
     @OneToMany(mappedBy = "from", cascade = CascadeType.ALL, orphanRemoval = true)
     private java.util.List<Transaction> fromTransactions;
@@ -0,0 +1,36 @@
+package com.mertyurekli.minibankingbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "account_import_checkpoints")
+public class AccountImportCheckpoint {
+
+    // "<userId>:<importId>", or "owners:<importId>" for the command-line import
+    @Id
+    @Column(name = "id")
+    private String id;
+
+    // Data rows covered by committed batches; a resumed import skips this many
+    @Column(name = "rows_processed", nullable = false)
+    private Long rowsProcessed;
+
+    @Column(name = "rows_imported", nullable = false)
+    private Long rowsImported;
+
+    @Column(name = "rows_failed", nullable = false)
+    private Long rowsFailed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
\ No newline at end of file
@@ -0,0 +1,42 @@
+package com.mertyurekli.minibankingbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "idempotency_keys")
+public class IdempotencyRecord {
+
+    // "<userId>:<Idempotency-Key header>"
+    @Id
+    @Column(name = "id")
+    private String id;
+
+    @Column(name = "request_hash", nullable = false)
+    private String requestHash;
+
+    @Column(name = "response_status", nullable = false)
+    private Integer responseStatus;
+
+    @Column(name = "content_type", nullable = false)
+    private String contentType;
+
+    @Column(name = "response_body", nullable = false, columnDefinition = "TEXT")
+    private String responseBody;
+
+    // JSON object of header name to values; null for records stored before headers were kept
+    @Column(name = "response_headers", columnDefinition = "TEXT")
+    private String responseHeaders;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
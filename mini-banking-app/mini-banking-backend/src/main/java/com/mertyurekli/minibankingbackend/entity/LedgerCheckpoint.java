@@ -0,0 +1,23 @@
+package com.mertyurekli.minibankingbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "ledger_checkpoints")
+public class LedgerCheckpoint {
+
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    @Column(name = "last_sequence", nullable = false)
+    private Long lastSequence;
+}
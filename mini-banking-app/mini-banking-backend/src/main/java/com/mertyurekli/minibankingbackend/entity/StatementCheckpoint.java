@@ -0,0 +1,43 @@
+package com.mertyurekli.minibankingbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "statement_checkpoints")
+public class StatementCheckpoint {
+
+    // "<period>/<partitions>/<partition index>"; changing statement.partitions starts the period over
+    @Id
+    @Column(name = "id")
+    private String id;
+
+    // Highest account id in the partition whose statement file is written; null before the first chunk
+    @Column(name = "last_account_id")
+    private UUID lastAccountId;
+
+    @Column(name = "accounts_written", nullable = false)
+    private Long accountsWritten;
+
+    @Column(name = "transactions_written", nullable = false)
+    private Long transactionsWritten;
+
+    @Column(name = "bytes_written", nullable = false)
+    private Long bytesWritten;
+
+    @Column(name = "completed", nullable = false)
+    private boolean completed;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+}
\ No newline at end of file
@@ -18,7 +18,8 @@ import java.time.LocalDateTime;
 public class Transaction {
     
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transactions_seq")
+    @SequenceGenerator(name = "transactions_seq", sequenceName = "transactions_seq", allocationSize = 50)
     private Long id;
     
     @ManyToOne(fetch = FetchType.LAZY)
@@ -35,6 +36,17 @@ public class Transaction {
     @Column(name = "transaction_date", nullable = false)
     private LocalDateTime transactionDate;
     
+    // PENDING while queued for the async transfer workers, then SUCCESS or FAILED
     @Column(name = "status", nullable = false)
     private String status;
+
+    // One row per transfer with a positive amount; each side's balance right after it was applied
+    @Column(name = "from_balance_after")
+    private BigDecimal fromBalanceAfter;
+
+    @Column(name = "to_balance_after")
+    private BigDecimal toBalanceAfter;
+
+    @Column(name = "failure_reason")
+    private String failureReason;
 }
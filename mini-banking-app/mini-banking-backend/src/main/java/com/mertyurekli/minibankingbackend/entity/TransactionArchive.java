@@ -0,0 +1,42 @@
+package com.mertyurekli.minibankingbackend.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "transaction_archives")
+public class TransactionArchive {
+
+    // Name of the dropped monthly partition, e.g. transactions_y2024m01
+    @Id
+    @Column(name = "partition_name")
+    private String partitionName;
+
+    // transaction_date range [rangeStart, rangeEnd) the partition held
+    @Column(name = "range_start", nullable = false)
+    private LocalDateTime rangeStart;
+
+    @Column(name = "range_end", nullable = false)
+    private LocalDateTime rangeEnd;
+
+    @Column(name = "file_path", nullable = false, length = 1024)
+    private String filePath;
+
+    @Column(name = "row_count", nullable = false)
+    private Long rowCount;
+
+    @Column(name = "bytes", nullable = false)
+    private Long bytes;
+
+    @Column(name = "archived_at", nullable = false)
+    private LocalDateTime archivedAt;
+}
\ No newline at end of file
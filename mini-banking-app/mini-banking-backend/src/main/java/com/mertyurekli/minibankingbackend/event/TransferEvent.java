@@ -0,0 +1,17 @@
+package com.mertyurekli.minibankingbackend.event;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Published by every path that writes or settles a transfer; delivered to listeners after the write commits
+public record TransferEvent(Long transactionId,
+                            UUID fromAccountId,
+                            UUID toAccountId,
+                            BigDecimal amount,
+                            LocalDateTime transactionDate,
+                            String status,
+                            BigDecimal fromBalanceAfter,
+                            BigDecimal toBalanceAfter,
+                            String failureReason) {
+}
\ No newline at end of file
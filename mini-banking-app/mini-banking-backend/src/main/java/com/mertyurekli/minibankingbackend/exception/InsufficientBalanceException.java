@@ -0,0 +1,8 @@
+package com.mertyurekli.minibankingbackend.exception;
+
+public class InsufficientBalanceException extends RuntimeException {
+
+    public InsufficientBalanceException() {
+        super("Insufficient balance");
+    }
+}
\ No newline at end of file
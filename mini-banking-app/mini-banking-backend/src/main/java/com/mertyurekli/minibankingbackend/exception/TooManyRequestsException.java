@@ -0,0 +1,13 @@
+package com.mertyurekli.minibankingbackend.exception;
+
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+public class TooManyRequestsException extends RuntimeException {
+
+    public TooManyRequestsException(String message) {
+            super(message);
+        }
+}
\ No newline at end of file
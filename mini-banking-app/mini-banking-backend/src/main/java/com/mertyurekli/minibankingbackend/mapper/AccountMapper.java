@@ -1,6 +1,9 @@
 package com.mertyurekli.minibankingbackend.mapper;
 
+import com.mertyurekli.minibankingbackend.dto.AccountBalanceDto;
 import com.mertyurekli.minibankingbackend.dto.AccountDto;
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.dto.AccountView;
 import com.mertyurekli.minibankingbackend.entity.Account;
 
 import java.time.LocalDateTime;
@@ -19,16 +22,37 @@ public class AccountMapper {
         );
     }
 
+    public static AccountDto mapToAccountDto(AccountView view) {
+        return new AccountDto(
+                view.getId(),
+                view.getNumber(),
+                view.getName(),
+                view.getBalance(),
+                view.getType(),
+                view.getCreatedAt(),
+                view.getUpdatedAt()
+        );
+    }
+
+    // Cached metadata plus a balance read from the database just now
+    public static AccountDto mapToAccountDto(AccountMetadata metadata, AccountBalanceDto balance) {
+        return new AccountDto(
+                metadata.id(),
+                metadata.number(),
+                metadata.name(),
+                balance.getBalance(),
+                metadata.type(),
+                metadata.createdAt(),
+                balance.getAsOf()
+        );
+    }
+
     public static Account mapToAccount(AccountDto accountDto) {
         LocalDateTime now = LocalDateTime.now();
         Account account = new Account();
         // Don't set ID for new accounts - let JPA generate it
-        // Generate account number if not provided
-        if (accountDto.getNumber() == null || accountDto.getNumber().isEmpty()) {
-            account.setNumber(generateAccountNumber());
-        } else {
-            account.setNumber(accountDto.getNumber());
-        }
+        // A missing number is assigned by the service from AccountNumberGenerator
+        account.setNumber(accountDto.getNumber());
         account.setName(accountDto.getName());
         account.setBalance(accountDto.getBalance());
         account.setType(accountDto.getType());
@@ -38,13 +62,6 @@ public class AccountMapper {
         return account;
     }
     
-    private static String generateAccountNumber() {
-        // Generate a unique 10-digit account number using timestamp and random
-        long timestamp = System.currentTimeMillis();
-        int random = (int)(Math.random() * 10000);
-        return String.format("%010d", (timestamp % 10000000000L) + random);
-    }
-    
     public static Account mapToAccountForUpdate(AccountDto accountDto, Account existingAccount) {
         existingAccount.setNumber(accountDto.getNumber());
         existingAccount.setName(accountDto.getName());
@@ -1,22 +1,52 @@
 package com.mertyurekli.minibankingbackend.mapper;
 
+import com.mertyurekli.minibankingbackend.dto.RecentTransactionView;
 import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
 import com.mertyurekli.minibankingbackend.entity.Transaction;
+import com.mertyurekli.minibankingbackend.event.TransferEvent;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.UUID;
 
 public class TransactionMapper {
 
-    public static TransactionDto mapToTransactionDto(Transaction transaction) {
+    // Seen from accountId's side: balanceAfter is that account's balance after the transfer
+    public static TransactionDto mapToTransactionDto(Transaction transaction, UUID accountId) {
+        return mapToTransactionDto(transaction, accountId, transaction.getFrom().getNumber(), transaction.getTo().getNumber());
+    }
+
+    // For transactions whose accounts are uninitialized proxies: the numbers come from the caller instead
+    public static TransactionDto mapToTransactionDto(Transaction transaction, UUID accountId,
+                                                     String fromAccountNumber, String toAccountNumber) {
+        boolean outgoing = transaction.getFrom().getId().equals(accountId);
         return new TransactionDto(
                 transaction.getId(),
                 transaction.getFrom().getId(),
                 transaction.getTo().getId(),
-                transaction.getFrom().getNumber(),
-                transaction.getTo().getNumber(),
+                fromAccountNumber,
+                toAccountNumber,
                 transaction.getAmount(),
                 transaction.getTransactionDate(),
-                transaction.getStatus()
+                transaction.getStatus(),
+                outgoing ? transaction.getFromBalanceAfter() : transaction.getToBalanceAfter(),
+                transaction.getFailureReason()
+        );
+    }
+
+    public static TransactionDto mapToTransactionDto(RecentTransactionView view) {
+        return new TransactionDto(
+                view.getId(),
+                view.getFromAccountId(),
+                view.getToAccountId(),
+                view.getFromAccountNumber(),
+                view.getToAccountNumber(),
+                view.getAmount(),
+                view.getTransactionDate(),
+                view.getStatus(),
+                view.getBalanceAfter(),
+                view.getFailureReason()
         );
     }
 
@@ -27,7 +57,32 @@ public class TransactionMapper {
                 null, // to account will be set in service
                 transactionDto.getAmount(),
                 LocalDateTime.now(),
-                transactionDto.getStatus()
+                transactionDto.getStatus(),
+                null, // balances are set by the ledger engine when the transfer is applied
+                null,
+                null
+        );
+    }
+
+    public static TransferEvent mapToTransferEvent(Transaction transaction) {
+        return new TransferEvent(
+                transaction.getId(),
+                transaction.getFrom().getId(),
+                transaction.getTo().getId(),
+                transaction.getAmount(),
+                transaction.getTransactionDate(),
+                transaction.getStatus(),
+                transaction.getFromBalanceAfter(),
+                transaction.getToBalanceAfter(),
+                transaction.getFailureReason()
         );
     }
-} 
\ No newline at end of file
+
+    public static BigDecimal mapToAmount(TransferRequestDto transferRequestDto) {
+        BigDecimal amount = BigDecimal.valueOf(transferRequestDto.getAmount());
+        if (amount.signum() <= 0) {
+            throw new RuntimeException("Transfer amount must be positive");
+        }
+        return amount;
+    }
+}
\ No newline at end of file
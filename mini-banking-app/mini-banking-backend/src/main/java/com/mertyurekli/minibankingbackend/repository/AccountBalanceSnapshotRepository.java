@@ -0,0 +1,39 @@
+package com.mertyurekli.minibankingbackend.repository;
+
+import com.mertyurekli.minibankingbackend.entity.AccountBalanceSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface AccountBalanceSnapshotRepository extends JpaRepository<AccountBalanceSnapshot, Long> {
+
+    Optional<AccountBalanceSnapshot> findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(UUID accountId, LocalDateTime at);
+
+    // Works back from the current balance, so it only reads the transactions dated after the boundary.
+    // Re-running it for the same boundary is a no-op.
+    @Transactional
+    @Modifying
+    @Query(value = """
+            INSERT INTO account_balance_snapshots (account_id, snapshot_at, balance)
+            SELECT a.id, :boundary, a.balance - COALESCE(later.delta, 0)
+            FROM accounts a
+            LEFT JOIN (
+                SELECT account_id, SUM(change) AS delta
+                FROM (
+                    SELECT to_account_id AS account_id, amount AS change FROM transactions WHERE status = 'SUCCESS' AND transaction_date >= :boundary
+                    UNION ALL
+                    SELECT from_account_id, -amount FROM transactions WHERE status = 'SUCCESS' AND transaction_date >= :boundary
+                ) changes
+                GROUP BY account_id
+            ) later ON later.account_id = a.id
+            WHERE a.created_at < :boundary
+            ON CONFLICT (account_id, snapshot_at) DO NOTHING
+            """, nativeQuery = true)
+    int insertSnapshots(@Param("boundary") LocalDateTime boundary);
+}
@@ -0,0 +1,7 @@
+package com.mertyurekli.minibankingbackend.repository;
+
+import com.mertyurekli.minibankingbackend.entity.AccountImportCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface AccountImportCheckpointRepository extends JpaRepository<AccountImportCheckpoint, String> {
+}
\ No newline at end of file
@@ -1,25 +1,88 @@
 package com.mertyurekli.minibankingbackend.repository;
 
+import com.mertyurekli.minibankingbackend.dto.AccountBalanceDto;
+import com.mertyurekli.minibankingbackend.dto.AccountDto;
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.dto.AccountView;
 import com.mertyurekli.minibankingbackend.entity.Account;
 import com.mertyurekli.minibankingbackend.entity.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface AccountRepository extends JpaRepository<Account, UUID> {
-    
-    @Query("SELECT a FROM Account a WHERE a.user = :user AND (a.number LIKE %:searchTerm% OR a.name LIKE %:searchTerm%)")
-    List<Account> findByUserAndNumberContainingOrUserAndNameContaining(@Param("user") User user, @Param("searchTerm") String searchTerm);
+
+    // Select list of the AccountView queries; quoted so Postgres keeps the camelCase aliases the projection looks up
+    String ACCOUNT_VIEW_COLUMNS = "a.id AS \"id\", a.number AS \"number\", a.name AS \"name\", a.balance AS \"balance\", " +
+            "a.type AS \"type\", a.created_at AS \"createdAt\", a.updated_at AS \"updatedAt\"";
+
+    // Number prefix (idx_accounts_user_number_prefix), name substring or trigram similarity (idx_accounts_name_trgm).
+    // Number prefix hits rank first, then the closest names. The patterns arrive with LIKE wildcards escaped.
+    @Query(value = "SELECT " + ACCOUNT_VIEW_COLUMNS + " FROM accounts a WHERE a.user_id = :userId " +
+            "AND (a.number LIKE :numberPrefix OR a.name ILIKE :nameContains OR a.name % :term) " +
+            "ORDER BY (a.number LIKE :numberPrefix) DESC, similarity(a.name, :term) DESC, a.number " +
+            "LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<AccountView> searchByUserId(@Param("userId") UUID userId,
+                                     @Param("term") String term,
+                                     @Param("numberPrefix") String numberPrefix,
+                                     @Param("nameContains") String nameContains,
+                                     @Param("limit") int limit,
+                                     @Param("offset") long offset);
+
+    // Empty search term: the user's accounts in number order, served by idx_accounts_user_number_prefix
+    @Query(value = "SELECT " + ACCOUNT_VIEW_COLUMNS + " FROM accounts a WHERE a.user_id = :userId " +
+            "ORDER BY a.number LIMIT :limit OFFSET :offset", nativeQuery = true)
+    List<AccountView> findPageByUserId(@Param("userId") UUID userId, @Param("limit") int limit, @Param("offset") long offset);
     
     @Query("SELECT a FROM Account a WHERE a.number = :accountNumber")
-    java.util.Optional<Account> findByNumber(@Param("accountNumber") String accountNumber);
+    Optional<Account> findByNumber(@Param("accountNumber") String accountNumber);
     
+    @Query("SELECT new com.mertyurekli.minibankingbackend.dto.AccountDto(" +
+            "a.id, a.number, a.name, a.balance, a.type, a.createdAt, a.updatedAt) " +
+            "FROM Account a WHERE a.user.id = :userId ORDER BY a.number")
+    List<AccountDto> findAccountDtosByUserId(@Param("userId") UUID userId);
+
     @Query("SELECT a FROM Account a WHERE a.user = :user")
     List<Account> findByUser(@Param("user") User user);
 
     @Query("SELECT a FROM Account a WHERE a.number = :accountNumber")
-    java.util.Optional<Account> findByAccountNumber(String accountNumber);
-} 
\ No newline at end of file
+    Optional<Account> findByAccountNumber(String accountNumber);
+
+    // Rows are locked in account number order so concurrent batches touching the same accounts cannot deadlock
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.number IN :accountNumbers ORDER BY a.number")
+    List<Account> findAllByNumberInForUpdate(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN (SELECT t.from.id FROM Transaction t WHERE t.id IN :transactionIds) " +
+            "OR a.id IN (SELECT t.to.id FROM Transaction t WHERE t.id IN :transactionIds) ORDER BY a.number")
+    List<Account> findAllInvolvedInTransactionsForUpdate(@Param("transactionIds") Collection<Long> transactionIds);
+
+    @Query("SELECT new com.mertyurekli.minibankingbackend.dto.AccountMetadata(a.id, a.number, a.name, a.type, a.user.id, a.createdAt) " +
+            "FROM Account a WHERE a.id = :accountId")
+    Optional<AccountMetadata> findMetadataById(@Param("accountId") UUID accountId);
+
+    @Query("SELECT new com.mertyurekli.minibankingbackend.dto.AccountMetadata(a.id, a.number, a.name, a.type, a.user.id, a.createdAt) " +
+            "FROM Account a WHERE a.number = :accountNumber")
+    Optional<AccountMetadata> findMetadataByNumber(@Param("accountNumber") String accountNumber);
+
+    // asOf carries updated_at so an AccountDto rebuilt from cached metadata keeps its updatedAt
+    @Query("SELECT new com.mertyurekli.minibankingbackend.dto.AccountBalanceDto(a.id, a.balance, a.updatedAt) " +
+            "FROM Account a WHERE a.id = :accountId")
+    Optional<AccountBalanceDto> findCurrentBalanceById(@Param("accountId") UUID accountId);
+
+    @Query("SELECT a.number FROM Account a WHERE a.number IN :accountNumbers")
+    List<String> findExistingNumbers(@Param("accountNumbers") Collection<String> accountNumbers);
+
+    // Ids are locked in account number order, like the batch path, so the two can never deadlock each other
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT a FROM Account a WHERE a.id IN :accountIds ORDER BY a.number")
+    List<Account> findAllByIdInForUpdate(@Param("accountIds") Collection<UUID> accountIds);
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.mertyurekli.minibankingbackend.repository;
+
+import com.mertyurekli.minibankingbackend.entity.LedgerCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface LedgerCheckpointRepository extends JpaRepository<LedgerCheckpoint, String> {
+}
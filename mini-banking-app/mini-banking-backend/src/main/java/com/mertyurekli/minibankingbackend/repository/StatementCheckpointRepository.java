@@ -0,0 +1,7 @@
+package com.mertyurekli.minibankingbackend.repository;
+
+import com.mertyurekli.minibankingbackend.entity.StatementCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+public interface StatementCheckpointRepository extends JpaRepository<StatementCheckpoint, String> {
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.mertyurekli.minibankingbackend.repository;
+
+import com.mertyurekli.minibankingbackend.entity.TransactionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface TransactionArchiveRepository extends JpaRepository<TransactionArchive, String> {
+
+    // Archives whose range overlaps [from, to), oldest first
+    @Query("SELECT a FROM TransactionArchive a WHERE a.rangeStart < :to AND a.rangeEnd > :from ORDER BY a.rangeStart")
+    List<TransactionArchive> findOverlapping(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    // End of the newest archived month; transactions before it are no longer in the database
+    @Query("SELECT MAX(a.rangeEnd) FROM TransactionArchive a")
+    Optional<LocalDateTime> findArchivedUntil();
+}
\ No newline at end of file
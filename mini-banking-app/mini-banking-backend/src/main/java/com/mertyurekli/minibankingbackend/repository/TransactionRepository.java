@@ -1,12 +1,169 @@
 package com.mertyurekli.minibankingbackend.repository;
 
+import com.mertyurekli.minibankingbackend.dto.RecentTransactionView;
+import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.dto.TransactionKey;
 import com.mertyurekli.minibankingbackend.entity.Transaction;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TransactionRepository extends JpaRepository<Transaction, Long> {
-    
-    List<Transaction> findByFromIdOrToIdOrderByTransactionDateDesc(UUID fromAccountId, UUID toAccountId);
-} 
\ No newline at end of file
+
+    // TransactionDto built in the query with balanceAfter taken from the :accountId side. Read paths use it
+    // instead of loading Transaction entities and their from/to accounts into the persistence context.
+    String TRANSACTION_DTO_SELECT = "SELECT new com.mertyurekli.minibankingbackend.dto.TransactionDto(" +
+            "t.id, f.id, r.id, f.number, r.number, t.amount, t.transactionDate, t.status, " +
+            "CASE WHEN f.id = :accountId THEN t.fromBalanceAfter ELSE t.toBalanceAfter END, t.failureReason) " +
+            "FROM Transaction t JOIN t.from f JOIN t.to r ";
+
+    // Each side of the OR is read as its own range of idx_transactions_{from,to}_account_date and merged,
+    // so a page costs O(limit) index entries instead of a bitmap scan over the account's whole history.
+    // The monthly partitions are appended newest first, so older months are only opened while the page is short.
+    @Query(value = """
+            SELECT id AS "id", transaction_date AS "transactionDate" FROM (
+                (SELECT id, transaction_date FROM transactions WHERE from_account_id = :accountId
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+                UNION
+                (SELECT id, transaction_date FROM transactions WHERE to_account_id = :accountId
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+            ) page
+            ORDER BY transaction_date DESC, id DESC LIMIT :limit
+            """, nativeQuery = true)
+    List<TransactionKey> findLatestKeysByAccountId(@Param("accountId") UUID accountId, @Param("limit") int limit);
+
+    // The row comparison cannot prune partitions; the plain transaction_date bound next to it can
+    @Query(value = """
+            SELECT id AS "id", transaction_date AS "transactionDate" FROM (
+                (SELECT id, transaction_date FROM transactions WHERE from_account_id = :accountId
+                 AND transaction_date <= :beforeDate AND (transaction_date, id) < (:beforeDate, :beforeId)
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+                UNION
+                (SELECT id, transaction_date FROM transactions WHERE to_account_id = :accountId
+                 AND transaction_date <= :beforeDate AND (transaction_date, id) < (:beforeDate, :beforeId)
+                 ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+            ) page
+            ORDER BY transaction_date DESC, id DESC LIMIT :limit
+            """, nativeQuery = true)
+    List<TransactionKey> findKeysByAccountIdBefore(@Param("accountId") UUID accountId,
+                                                   @Param("beforeDate") LocalDateTime beforeDate,
+                                                   @Param("beforeId") Long beforeId,
+                                                   @Param("limit") int limit);
+
+    // Net change of the account over [from, to]: received minus sent
+    @Query(value = """
+            SELECT COALESCE((SELECT SUM(amount) FROM transactions WHERE to_account_id = :accountId
+                             AND status = 'SUCCESS' AND transaction_date >= :from AND transaction_date <= :to), 0)
+                 - COALESCE((SELECT SUM(amount) FROM transactions WHERE from_account_id = :accountId
+                             AND status = 'SUCCESS' AND transaction_date >= :from AND transaction_date <= :to), 0)
+            """, nativeQuery = true)
+    BigDecimal sumBalanceChangeBetween(@Param("accountId") UUID accountId,
+                                       @Param("from") LocalDateTime from,
+                                       @Param("to") LocalDateTime to);
+
+    @Query(value = """
+            SELECT COALESCE((SELECT SUM(amount) FROM transactions WHERE to_account_id = :accountId
+                             AND status = 'SUCCESS' AND transaction_date > :after), 0)
+                 - COALESCE((SELECT SUM(amount) FROM transactions WHERE from_account_id = :accountId
+                             AND status = 'SUCCESS' AND transaction_date > :after), 0)
+            """, nativeQuery = true)
+    BigDecimal sumBalanceChangeAfter(@Param("accountId") UUID accountId, @Param("after") LocalDateTime after);
+
+    // Lease on one queue partition for the current transaction. Workers on every node share the partition
+    // numbers, so only one of them drains a partition at a time and a sender's transfers cannot be reordered.
+    @Query(value = "SELECT pg_try_advisory_xact_lock(hashtext('transfer_queue'), :partition)", nativeQuery = true)
+    boolean tryLockQueuePartition(@Param("partition") int partition);
+
+    // Each worker owns a hash partition of sender accounts, so one sender's queued transfers are applied in order.
+    // Called under tryLockQueuePartition: no rows are skipped, so a sender's later transfer never overtakes an earlier one.
+    @Query(value = """
+            SELECT id FROM transactions
+            WHERE status = 'PENDING'
+              AND (hashtext(CAST(from_account_id AS TEXT)) & 2147483647) % :partitions = :partition
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE
+            """, nativeQuery = true)
+    List<Long> claimPendingIds(@Param("partitions") int partitions,
+                               @Param("partition") int partition,
+                               @Param("limit") int limit);
+
+    // The latest-ids query above for every account of a user at once: one LATERAL subquery per account row,
+    // each still reading just `limit` index entries per side, then joined to the rows and account numbers
+    @Query(value = """
+            SELECT acc.id AS "accountId", t.id AS "id",
+                   t.from_account_id AS "fromAccountId", t.to_account_id AS "toAccountId",
+                   fa.number AS "fromAccountNumber", ta.number AS "toAccountNumber",
+                   t.amount AS "amount", t.transaction_date AS "transactionDate", t.status AS "status",
+                   CASE WHEN t.from_account_id = acc.id THEN t.from_balance_after ELSE t.to_balance_after END AS "balanceAfter",
+                   t.failure_reason AS "failureReason"
+            FROM accounts acc
+            CROSS JOIN LATERAL (
+                SELECT id, transaction_date FROM (
+                    (SELECT id, transaction_date FROM transactions WHERE from_account_id = acc.id
+                     ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+                    UNION
+                    (SELECT id, transaction_date FROM transactions WHERE to_account_id = acc.id
+                     ORDER BY transaction_date DESC, id DESC LIMIT :limit)
+                ) latest
+                ORDER BY transaction_date DESC, id DESC LIMIT :limit
+            ) recent
+            JOIN transactions t ON t.id = recent.id AND t.transaction_date = recent.transaction_date
+            JOIN accounts fa ON fa.id = t.from_account_id
+            JOIN accounts ta ON ta.id = t.to_account_id
+            WHERE acc.user_id = :userId
+            ORDER BY acc.id, recent.transaction_date DESC, recent.id DESC
+            """, nativeQuery = true)
+    List<RecentTransactionView> findLatestForUserAccounts(@Param("userId") UUID userId, @Param("limit") int limit);
+
+    @Query("SELECT t FROM Transaction t JOIN FETCH t.from JOIN FETCH t.to " +
+            "WHERE t.id IN :ids " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<Transaction> findAllWithAccountsByIdIn(@Param("ids") Collection<Long> ids);
+
+    // oldest/newest bound the dates of ids so only the partitions holding them are probed
+    @Query(TRANSACTION_DTO_SELECT +
+            "WHERE t.id IN :ids AND t.transactionDate >= :oldest AND t.transactionDate <= :newest " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    List<TransactionDto> findDtosByIdIn(@Param("ids") Collection<Long> ids,
+                                        @Param("accountId") UUID accountId,
+                                        @Param("oldest") LocalDateTime oldest,
+                                        @Param("newest") LocalDateTime newest);
+
+    // Only matches when the sender account belongs to userId; balanceAfter is the sender's
+    @Query("SELECT new com.mertyurekli.minibankingbackend.dto.TransactionDto(" +
+            "t.id, f.id, r.id, f.number, r.number, t.amount, t.transactionDate, t.status, t.fromBalanceAfter, t.failureReason) " +
+            "FROM Transaction t JOIN t.from f JOIN t.to r " +
+            "WHERE t.id = :transactionId AND f.user.id = :userId")
+    Optional<TransactionDto> findSenderDtoById(@Param("transactionId") Long transactionId,
+                                                         @Param("userId") UUID userId);
+
+    // Must be consumed inside a transaction; rows arrive through a server-side cursor in fetch-size chunks.
+    // Nothing is attached to the persistence context, so a long history needs no detaching while it streams.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TRANSACTION_DTO_SELECT +
+            "WHERE (f.id = :accountId OR r.id = :accountId) " +
+            "ORDER BY t.transactionDate DESC, t.id DESC")
+    Stream<TransactionDto> streamByAccountId(@Param("accountId") UUID accountId);
+
+    // Settled transfers of one statement period, oldest first; same cursor rules as streamByAccountId
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(TRANSACTION_DTO_SELECT +
+            "WHERE (f.id = :accountId OR r.id = :accountId) AND t.status = 'SUCCESS' " +
+            "AND t.transactionDate >= :from AND t.transactionDate <= :to " +
+            "ORDER BY t.transactionDate, t.id")
+    Stream<TransactionDto> streamSettledByAccountIdBetween(@Param("accountId") UUID accountId,
+                                                        @Param("from") LocalDateTime from,
+                                                        @Param("to") LocalDateTime to);
+}
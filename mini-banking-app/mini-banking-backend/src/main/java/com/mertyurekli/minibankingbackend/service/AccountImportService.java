@@ -0,0 +1,14 @@
+package com.mertyurekli.minibankingbackend.service;
+
+import com.mertyurekli.minibankingbackend.dto.AccountImportResultDto;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+public interface AccountImportService {
+    // format is "csv" or "ndjson"; the accounts belong to the authenticated user
+    AccountImportResultDto importAccounts(String importId, InputStream input, String format) throws IOException;
+
+    // Each row names its owner in a username column; for trusted callers only, never exposed over HTTP
+    AccountImportResultDto importAccountsWithOwners(String importId, InputStream input, String format) throws IOException;
+}
\ No newline at end of file
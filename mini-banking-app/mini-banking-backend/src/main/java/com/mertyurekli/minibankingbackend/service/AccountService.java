@@ -1,14 +1,17 @@
 package com.mertyurekli.minibankingbackend.service;
 
+import com.mertyurekli.minibankingbackend.dto.AccountBalanceDto;
 import com.mertyurekli.minibankingbackend.dto.AccountDto;
+import com.mertyurekli.minibankingbackend.dto.AccountPageDto;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
 
 public interface AccountService {
     AccountDto createAccount(AccountDto accountDto);
     
-    List<AccountDto> searchAccounts(String searchTerm);
+    AccountPageDto searchAccounts(String searchTerm, Integer page, Integer size);
     
     AccountDto getAccountById(UUID accountId);
     
@@ -17,4 +20,6 @@ public interface AccountService {
     AccountDto updateAccount(UUID accountId, AccountDto accountDto);
     
     void deleteAccount(UUID accountId);
+    
+    AccountBalanceDto getBalanceAsOf(UUID accountId, LocalDateTime asOf);
 } 
\ No newline at end of file
@@ -0,0 +1,7 @@
+package com.mertyurekli.minibankingbackend.service;
+
+import com.mertyurekli.minibankingbackend.dto.DashboardDto;
+
+public interface DashboardService {
+    DashboardDto getDashboard(Integer recentTransactions);
+}
\ No newline at end of file
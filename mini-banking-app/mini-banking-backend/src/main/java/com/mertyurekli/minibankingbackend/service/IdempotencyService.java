@@ -0,0 +1,10 @@
+package com.mertyurekli.minibankingbackend.service;
+
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+    // Runs the action once per (user, key); repeats with the same key get the first response back
+    ResponseEntity<?> execute(String idempotencyKey, Object request, Supplier<ResponseEntity<?>> action);
+}
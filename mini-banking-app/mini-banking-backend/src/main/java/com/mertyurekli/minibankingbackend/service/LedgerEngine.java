@@ -0,0 +1,36 @@
+package com.mertyurekli.minibankingbackend.service;
+
+import com.mertyurekli.minibankingbackend.dto.TransferFailure;
+import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
+import com.mertyurekli.minibankingbackend.dto.TransferResultDto;
+import com.mertyurekli.minibankingbackend.mapper.TransactionMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+public interface LedgerEngine {
+    void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount);
+
+    // Applies each transfer independently; a failed item never stops the ones after it
+    default List<TransferResultDto> transferAll(List<TransferRequestDto> requests) {
+        List<TransferResultDto> results = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequestDto dto = requests.get(i);
+            try {
+                transfer(dto.getFromAccountNumber(), dto.getToAccountNumber(), TransactionMapper.mapToAmount(dto));
+                results.add(new TransferResultDto(i, dto.getFromAccountNumber(), dto.getToAccountNumber(), dto.getAmount(), "SUCCESS", null, null));
+            } catch (RuntimeException e) {
+                results.add(new TransferResultDto(i, dto.getFromAccountNumber(), dto.getToAccountNumber(), dto.getAmount(), "FAILED", e.getMessage(), TransferFailure.of(e)));
+            }
+        }
+        return results;
+    }
+
+    // Runs a direct write to the account row with any balance the engine holds flushed and dropped, so the next
+    // transfer re-reads it from the database. The update must commit before it returns.
+    default <T> T invalidateAround(String accountNumber, Supplier<T> update) {
+        return update.get();
+    }
+}
@@ -0,0 +1,7 @@
+package com.mertyurekli.minibankingbackend.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface NotificationService {
+    SseEmitter subscribe();
+}
\ No newline at end of file
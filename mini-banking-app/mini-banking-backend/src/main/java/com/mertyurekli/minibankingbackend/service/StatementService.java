@@ -0,0 +1,10 @@
+package com.mertyurekli.minibankingbackend.service;
+
+import com.mertyurekli.minibankingbackend.dto.StatementRunReportDto;
+
+import java.time.YearMonth;
+
+public interface StatementService {
+    // Writes one statement file per account for the month; running a period again resumes an interrupted run
+    StatementRunReportDto generateStatements(YearMonth period);
+}
\ No newline at end of file
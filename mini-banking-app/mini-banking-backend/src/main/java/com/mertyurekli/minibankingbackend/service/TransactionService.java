@@ -1,13 +1,29 @@
 package com.mertyurekli.minibankingbackend.service;
 
 import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.dto.TransactionPageDto;
 import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
+import com.mertyurekli.minibankingbackend.dto.TransferResultDto;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.YearMonth;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 public interface TransactionService {
     void transferMoney(TransferRequestDto transferRequestDto);
+
+    List<TransferResultDto> transferMoneyBatch(List<TransferRequestDto> transferRequestDtos);
+
+    TransactionDto submitTransfer(TransferRequestDto transferRequestDto);
+
+    TransactionDto getTransfer(Long transferId);
     
-    List<TransactionDto> getTransactionHistory(UUID accountId);
-} 
\ No newline at end of file
+    TransactionPageDto getTransactionHistory(UUID accountId, String cursor, Integer size);
+
+    void exportTransactionHistory(UUID accountId, String format, OutputStream outputStream) throws IOException;
+
+    Stream<TransactionDto> streamArchivedTransactionHistory(UUID accountId, YearMonth from, YearMonth to);
+}
@@ -0,0 +1,346 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.config.ReadYourWritesTracker;
+import com.mertyurekli.minibankingbackend.dto.AccountImportErrorDto;
+import com.mertyurekli.minibankingbackend.dto.AccountImportResultDto;
+import com.mertyurekli.minibankingbackend.dto.AccountImportRowDto;
+import com.mertyurekli.minibankingbackend.entity.AccountImportCheckpoint;
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
+import com.mertyurekli.minibankingbackend.repository.AccountImportCheckpointRepository;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.UserRepository;
+import com.mertyurekli.minibankingbackend.service.AccountImportService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Streams CSV or NDJSON account rows into the database. Rows are read one line at a time, validated, and inserted
+ * with plain JDBC batches (rewritten into multi-row INSERTs by reWriteBatchedInserts); each batch commits together
+ * with the import's checkpoint, so memory stays at one batch whatever the file size and a re-sent import resumes
+ * after the last committed batch.
+ */
+@Service
+public class AccountImportServiceImpl implements AccountImportService {
+
+    private static final int MAX_IMPORT_ID_LENGTH = 200;
+    private static final String INSERT_ACCOUNT =
+            "INSERT INTO accounts (id, number, name, balance, type, created_at, updated_at, user_id) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final AccountRepository accountRepository;
+    private final UserRepository userRepository;
+    private final AccountImportCheckpointRepository checkpointRepository;
+    private final AccountNumberGenerator accountNumberGenerator;
+    private final AuthenticatedUserContext authenticatedUserContext;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final ObjectMapper objectMapper;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public AccountImportServiceImpl(JdbcTemplate jdbcTemplate,
+                                    TransactionTemplate transactionTemplate,
+                                    AccountRepository accountRepository,
+                                    UserRepository userRepository,
+                                    AccountImportCheckpointRepository checkpointRepository,
+                                    AccountNumberGenerator accountNumberGenerator,
+                                    AuthenticatedUserContext authenticatedUserContext,
+                                    ReadYourWritesTracker readYourWritesTracker,
+                                    ObjectMapper objectMapper,
+                                    @Value("${account.import.batch-size:1000}") int batchSize,
+                                    @Value("${account.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.accountRepository = accountRepository;
+        this.userRepository = userRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.accountNumberGenerator = accountNumberGenerator;
+        this.authenticatedUserContext = authenticatedUserContext;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.objectMapper = objectMapper;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    @Override
+    public AccountImportResultDto importAccounts(String importId, InputStream input, String format) throws IOException {
+        // Resolved once for the whole file instead of once per account
+        UUID userId = authenticatedUserContext.getCurrentUserId();
+        AccountImportResultDto result = run(userId + ":" + importId, importId, input, format, row -> userId);
+        readYourWritesTracker.recordWrite();
+        return result;
+    }
+
+    @Override
+    public AccountImportResultDto importAccountsWithOwners(String importId, InputStream input, String format) throws IOException {
+        // Migrated files list the same customers over and over; a bounded cache keeps that to one lookup each
+        Cache<String, UUID> owners = Caffeine.newBuilder().maximumSize(10_000).build();
+        return run("owners:" + importId, importId, input, format, row -> {
+            if (row.getUsername() == null || row.getUsername().isBlank()) {
+                throw new BadRequestException("username is required");
+            }
+            UUID ownerId = owners.getIfPresent(row.getUsername());
+            if (ownerId == null) {
+                ownerId = userRepository.findByUsername(row.getUsername())
+                        .orElseThrow(() -> new BadRequestException("Unknown user: " + row.getUsername()))
+                        .getId();
+                owners.put(row.getUsername(), ownerId);
+            }
+            return ownerId;
+        });
+    }
+
+    private AccountImportResultDto run(String checkpointId, String importId, InputStream input, String format,
+                                       Function<AccountImportRowDto, UUID> owner) throws IOException {
+        if (importId == null || importId.isBlank() || importId.length() > MAX_IMPORT_ID_LENGTH) {
+            throw new BadRequestException("importId is required and must be at most " + MAX_IMPORT_ID_LENGTH + " characters");
+        }
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Unsupported import format: " + format);
+        }
+        Run run = new Run(checkpointRepository.findById(checkpointId)
+                .orElseGet(() -> new AccountImportCheckpoint(checkpointId, 0L, 0L, 0L, LocalDateTime.now())));
+        long resumedAfterRow = run.checkpoint.getRowsProcessed();
+
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+        long line = 0;
+        Map<String, Integer> columns = null;
+        if (csv) {
+            String header = reader.readLine();
+            line++;
+            if (header == null) {
+                throw new BadRequestException("CSV import needs a header line");
+            }
+            columns = parseHeader(header);
+        }
+        long row = 0;
+        String text;
+        while ((text = reader.readLine()) != null) {
+            line++;
+            if (text.isBlank()) {
+                continue;
+            }
+            row++;
+            if (row <= resumedAfterRow) {
+                continue;
+            }
+            try {
+                AccountImportRowDto parsed = csv ? parseCsvRow(text, columns) : parseJsonRow(text);
+                run.add(validate(parsed, owner.apply(parsed), line));
+            } catch (BadRequestException e) {
+                run.reject(line, e.getMessage());
+            }
+            run.rowsInBatch++;
+            // Also counts rejected rows, so a file full of bad rows still moves its checkpoint forward
+            if (run.rowsInBatch >= batchSize) {
+                flush(run);
+            }
+        }
+        flush(run);
+
+        AccountImportCheckpoint checkpoint = run.checkpoint;
+        return new AccountImportResultDto(importId, resumedAfterRow, checkpoint.getRowsProcessed(),
+                checkpoint.getRowsImported(), checkpoint.getRowsFailed(), run.errors, run.errorsTruncated);
+    }
+
+    private void flush(Run run) {
+        if (run.rowsInBatch == 0) {
+            return;
+        }
+        run.checkpoint = transactionTemplate.execute(status -> {
+            // Numbers taken by earlier batches, other imports or createAccount
+            Set<String> existing = new HashSet<>(accountRepository.findExistingNumbers(run.batch.keySet()));
+            List<PendingAccount> accounts = new ArrayList<>(run.batch.size());
+            for (PendingAccount account : run.batch.values()) {
+                if (existing.contains(account.number())) {
+                    run.reject(account.line(), "Account number already exists: " + account.number());
+                } else {
+                    accounts.add(account);
+                }
+            }
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            if (!accounts.isEmpty()) {
+                jdbcTemplate.batchUpdate(INSERT_ACCOUNT, accounts, accounts.size(), (statement, account) -> {
+                    statement.setObject(1, UUID.randomUUID());
+                    statement.setString(2, account.number());
+                    statement.setString(3, account.name());
+                    statement.setBigDecimal(4, account.balance());
+                    statement.setString(5, account.type().name());
+                    statement.setTimestamp(6, now);
+                    statement.setTimestamp(7, now);
+                    statement.setObject(8, account.ownerId());
+                });
+            }
+
+            AccountImportCheckpoint checkpoint = run.checkpoint;
+            checkpoint.setRowsProcessed(checkpoint.getRowsProcessed() + run.rowsInBatch);
+            checkpoint.setRowsImported(checkpoint.getRowsImported() + accounts.size());
+            checkpoint.setRowsFailed(checkpoint.getRowsFailed() + run.rowsInBatch - accounts.size());
+            checkpoint.setUpdatedAt(now.toLocalDateTime());
+            return checkpointRepository.save(checkpoint);
+        });
+        run.batch.clear();
+        run.rowsInBatch = 0;
+    }
+
+    private PendingAccount validate(AccountImportRowDto row, UUID ownerId, long line) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new BadRequestException("name is required");
+        }
+        BigDecimal balance = row.getBalance();
+        if (balance == null) {
+            throw new BadRequestException("balance is required");
+        }
+        if (balance.signum() < 0) {
+            throw new BadRequestException("balance must not be negative");
+        }
+        if (balance.scale() > 2) {
+            throw new BadRequestException("balance must have at most two decimals");
+        }
+        AccountType type;
+        try {
+            type = AccountType.valueOf(String.valueOf(row.getType()).trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException("type must be one of " + Arrays.toString(AccountType.values()));
+        }
+        String number = row.getNumber() == null || row.getNumber().isBlank()
+                ? accountNumberGenerator.nextNumber()
+                : row.getNumber().trim();
+        if (number.length() > 255) {
+            throw new BadRequestException("number is too long");
+        }
+        return new PendingAccount(line, number, row.getName().trim(), balance, type, ownerId);
+    }
+
+    private AccountImportRowDto parseJsonRow(String text) {
+        try {
+            return objectMapper.readValue(text, AccountImportRowDto.class);
+        } catch (JsonProcessingException e) {
+            throw new BadRequestException("Malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private static Map<String, Integer> parseHeader(String header) {
+        List<String> names = splitCsv(header);
+        Map<String, Integer> columns = new HashMap<>();
+        for (int i = 0; i < names.size(); i++) {
+            columns.put(names.get(i).trim().toLowerCase(Locale.ROOT), i);
+        }
+        for (String required : List.of("name", "balance", "type")) {
+            if (!columns.containsKey(required)) {
+                throw new BadRequestException("CSV header is missing the " + required + " column");
+            }
+        }
+        return columns;
+    }
+
+    private static AccountImportRowDto parseCsvRow(String text, Map<String, Integer> columns) {
+        List<String> fields = splitCsv(text);
+        String balance = field(fields, columns, "balance");
+        BigDecimal amount = null;
+        if (balance != null && !balance.isBlank()) {
+            try {
+                amount = new BigDecimal(balance.trim());
+            } catch (NumberFormatException e) {
+                throw new BadRequestException("balance is not a number: " + balance);
+            }
+        }
+        return new AccountImportRowDto(field(fields, columns, "username"), field(fields, columns, "number"),
+                field(fields, columns, "name"), amount, field(fields, columns, "type"));
+    }
+
+    private static String field(List<String> fields, Map<String, Integer> columns, String name) {
+        Integer index = columns.get(name);
+        return index == null || index >= fields.size() ? null : fields.get(index);
+    }
+
+    // RFC 4180 quoting within a single line; quoted fields spanning lines are not supported.
+    // Also parses the transaction archive files written by TransactionArchiver.
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    private record PendingAccount(long line, String number, String name, BigDecimal balance, AccountType type,
+                                  UUID ownerId) {
+    }
+
+    // State of one import call; keyed by number so duplicates inside a batch are caught before the insert
+    private final class Run {
+        private AccountImportCheckpoint checkpoint;
+        private final Map<String, PendingAccount> batch = new HashMap<>();
+        private final List<AccountImportErrorDto> errors = new ArrayList<>();
+        private boolean errorsTruncated;
+        private int rowsInBatch;
+
+        private Run(AccountImportCheckpoint checkpoint) {
+            this.checkpoint = checkpoint;
+        }
+
+        private void add(PendingAccount account) {
+            if (batch.putIfAbsent(account.number(), account) != null) {
+                throw new BadRequestException("Duplicate account number: " + account.number());
+            }
+        }
+
+        private void reject(long line, String message) {
+            if (errors.size() < maxReportedErrors) {
+                errors.add(new AccountImportErrorDto(line, message));
+            } else {
+                errorsTruncated = true;
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Read-through cache of account metadata keyed by id, with a number-to-id index in front of it. Balances are never
+ * cached; callers that need one read it from the database. Entries are dropped on update and delete, on other nodes
+ * too when account.cache.broadcast.enabled is set, and otherwise age out after account.cache.ttl.
+ */
+@Component
+public class AccountMetadataCache {
+
+    private final AccountRepository accountRepository;
+    private final ObjectProvider<PostgresAccountCacheBroadcaster> broadcaster;
+    private final Cache<UUID, AccountMetadata> byId;
+    private final Cache<String, UUID> idsByNumber;
+
+    public AccountMetadataCache(AccountRepository accountRepository,
+                                ObjectProvider<PostgresAccountCacheBroadcaster> broadcaster,
+                                MeterRegistry meterRegistry,
+                                @Value("${account.cache.max-size:100000}") long maxSize,
+                                @Value("${account.cache.ttl:10m}") Duration ttl) {
+        this.accountRepository = accountRepository;
+        this.broadcaster = broadcaster;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        this.idsByNumber = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "accounts.metadata");
+    }
+
+    public Optional<AccountMetadata> findById(UUID accountId) {
+        AccountMetadata metadata = byId.getIfPresent(accountId);
+        if (metadata == null) {
+            // Loaded outside cache.get for the same reason as JwtPrincipalCache: no JDBC call inside a map bin lock.
+            // Missing accounts are not cached, so a new account is visible immediately.
+            Optional<AccountMetadata> loaded = accountRepository.findMetadataById(accountId);
+            loaded.ifPresent(this::put);
+            return loaded;
+        }
+        return Optional.of(metadata);
+    }
+
+    public Optional<AccountMetadata> findByNumber(String accountNumber) {
+        UUID accountId = idsByNumber.getIfPresent(accountNumber);
+        if (accountId != null) {
+            // The index can outlive a renumbering or delete on another node; the id entry is the source of truth
+            Optional<AccountMetadata> metadata = findById(accountId)
+                    .filter(found -> found.number().equals(accountNumber));
+            if (metadata.isPresent()) {
+                return metadata;
+            }
+            idsByNumber.asMap().remove(accountNumber, accountId);
+        }
+        Optional<AccountMetadata> loaded = accountRepository.findMetadataByNumber(accountNumber);
+        loaded.ifPresent(this::put);
+        return loaded;
+    }
+
+    // Call once the change is committed, otherwise a concurrent read can cache the old row again
+    public void invalidate(UUID accountId) {
+        evict(accountId);
+        broadcaster.ifAvailable(publisher -> publisher.publish(accountId));
+    }
+
+    // Local only; used for invalidations received from other nodes
+    void evict(UUID accountId) {
+        AccountMetadata removed = byId.asMap().remove(accountId);
+        if (removed != null) {
+            idsByNumber.asMap().remove(removed.number(), accountId);
+        }
+    }
+
+    void evictAll() {
+        byId.invalidateAll();
+        idsByNumber.invalidateAll();
+    }
+
+    private void put(AccountMetadata metadata) {
+        byId.put(metadata.id(), metadata);
+        idsByNumber.put(metadata.number(), metadata.id());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,95 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out account numbers from blocks reserved on account_number_seq: one nextval reserves BLOCK_SIZE numbers
+ * for this node, and numbers inside a block cost one atomic increment. A number is the 10-digit counter followed by
+ * a Luhn check digit, so 11 digits and never equal to one of the older 10-digit random numbers.
+ */
+@Component
+public class AccountNumberGenerator {
+
+    // Fixed: blocks are nextval * BLOCK_SIZE, so changing it would overlap numbers already handed out
+    static final long BLOCK_SIZE = 1000;
+    private static final int COUNTER_DIGITS = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ReentrantLock refillLock = new ReentrantLock();
+    private volatile Block block = new Block(0, 0);
+
+    public AccountNumberGenerator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public String nextNumber() {
+        while (true) {
+            Block current = block;
+            long value = current.next.getAndIncrement();
+            if (value < current.end) {
+                return format(value);
+            }
+            refill(current);
+        }
+    }
+
+    // A lock rather than synchronized: the sequence call would otherwise pin a virtual thread
+    private void refill(Block exhausted) {
+        refillLock.lock();
+        try {
+            // Threads that raced past the end of the same block only trigger one reservation
+            if (block == exhausted) {
+                Long blockIndex = jdbcTemplate.queryForObject("SELECT nextval('account_number_seq')", Long.class);
+                long start = blockIndex * BLOCK_SIZE;
+                block = new Block(start, start + BLOCK_SIZE);
+            }
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    static String format(long value) {
+        char[] digits = new char[COUNTER_DIGITS + 1];
+        for (int i = COUNTER_DIGITS - 1; i >= 0; i--) {
+            digits[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        if (value != 0) {
+            throw new IllegalStateException("Account number space exhausted");
+        }
+        digits[COUNTER_DIGITS] = luhnDigit(digits, COUNTER_DIGITS);
+        return new String(digits);
+    }
+
+    // Doubles every second digit from the right of the payload, the check digit itself being the rightmost
+    private static char luhnDigit(char[] digits, int length) {
+        int sum = 0;
+        boolean doubled = true;
+        for (int i = length - 1; i >= 0; i--) {
+            int digit = digits[i] - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return (char) ('0' + (10 - sum % 10) % 10);
+    }
+
+    private static final class Block {
+        private final AtomicLong next;
+        private final long end;
+
+        private Block(long start, long end) {
+            this.next = new AtomicLong(start);
+            this.end = end;
+        }
+    }
+}
\ No newline at end of file
@@ -1,122 +1,219 @@
 package com.mertyurekli.minibankingbackend.service.impl;
 
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.config.ReadYourWritesTracker;
+import com.mertyurekli.minibankingbackend.dto.AccountBalanceDto;
 import com.mertyurekli.minibankingbackend.dto.AccountDto;
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.dto.AccountPageDto;
+import com.mertyurekli.minibankingbackend.dto.AccountView;
 import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.entity.AccountBalanceSnapshot;
 import com.mertyurekli.minibankingbackend.entity.User;
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
+import com.mertyurekli.minibankingbackend.exception.ConflictException;
 import com.mertyurekli.minibankingbackend.exception.ResourceNotFoundException;
 import com.mertyurekli.minibankingbackend.mapper.AccountMapper;
+import com.mertyurekli.minibankingbackend.repository.AccountBalanceSnapshotRepository;
 import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.TransactionArchiveRepository;
+import com.mertyurekli.minibankingbackend.repository.TransactionRepository;
 import com.mertyurekli.minibankingbackend.repository.UserRepository;
 import com.mertyurekli.minibankingbackend.service.AccountService;
+import com.mertyurekli.minibankingbackend.service.LedgerEngine;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "banking.service.accounts", histogram = true)
 public class AccountServiceImpl implements AccountService {
 
+    private static final int DEFAULT_PAGE_SIZE = 20;
+    private static final int MAX_PAGE_SIZE = 100;
+    // Deep OFFSET pages get slower linearly; past this a narrower search term is the answer
+    private static final int MAX_PAGE = 100;
+
     private AccountRepository accountRepository;
     private UserRepository userRepository;
+    private LedgerEngine ledgerEngine;
+    private AuthenticatedUserContext authenticatedUserContext;
+    private AccountBalanceSnapshotRepository snapshotRepository;
+    private TransactionRepository transactionRepository;
+    private AccountMetadataCache accountMetadataCache;
+    private AccountNumberGenerator accountNumberGenerator;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private TransactionArchiveRepository transactionArchiveRepository;
 
     @Override
     public AccountDto createAccount(AccountDto accountDto) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        // A reference proxy is enough to set the foreign key; it never hits the users table
+        User user = userRepository.getReferenceById(authenticatedUserContext.getCurrentUserId());
         
         Account account = AccountMapper.mapToAccount(accountDto);
+        if (account.getNumber() == null || account.getNumber().isEmpty()) {
+            account.setNumber(accountNumberGenerator.nextNumber());
+        }
         account.setUser(user);
         account.setCreatedAt(java.time.LocalDateTime.now());
         account.setUpdatedAt(java.time.LocalDateTime.now());
         
         Account savedAccount = accountRepository.save(account);
+        readYourWritesTracker.recordWrite();
         return AccountMapper.mapToAccountDto(savedAccount);
     }
 
     @Override
-    public List<AccountDto> searchAccounts(String searchTerm) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
-        
-        List<Account> accounts = accountRepository.findByUserAndNumberContainingOrUserAndNameContaining(user, searchTerm);
-        return accounts.stream()
+    @Transactional(readOnly = true)
+    public AccountPageDto searchAccounts(String searchTerm, Integer page, Integer size) {
+        UUID userId = authenticatedUserContext.getCurrentUserId();
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        int pageNumber = page == null ? 0 : Math.min(Math.max(page, 0), MAX_PAGE);
+        long offset = (long) pageNumber * pageSize;
+        String term = searchTerm == null ? "" : searchTerm.trim();
+        // Fetch one extra row to learn whether another page exists without a count query
+        List<AccountView> accounts;
+        if (term.isEmpty()) {
+            accounts = accountRepository.findPageByUserId(userId, pageSize + 1, offset);
+        } else {
+            String escaped = escapeLike(term);
+            accounts = accountRepository.searchByUserId(userId, term, escaped + "%", "%" + escaped + "%", pageSize + 1, offset);
+        }
+
+        Integer nextPage = null;
+        if (accounts.size() > pageSize) {
+            accounts = accounts.subList(0, pageSize);
+            nextPage = pageNumber < MAX_PAGE ? pageNumber + 1 : null;
+        }
+        List<AccountDto> accountDtos = accounts.stream()
                 .map(AccountMapper::mapToAccountDto)
                 .collect(Collectors.toList());
+        return new AccountPageDto(accountDtos, nextPage);
+    }
+
+    // Backslash is the default LIKE escape character in PostgreSQL
+    private static String escapeLike(String term) {
+        return term.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 
     @Override
     public AccountDto getAccountById(UUID accountId) {
-        Account account = accountRepository.findById(accountId)
+        AccountMetadata metadata = accountMetadataCache.findById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
-        return AccountMapper.mapToAccountDto(account);
+        return withCurrentBalance(metadata, "Account not found");
     }
 
     @Override
     public AccountDto getAccountByNumber(String accountNumber) {
-        Account account = accountRepository.findByNumber(accountNumber)
+        AccountMetadata metadata = accountMetadataCache.findByNumber(accountNumber)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found with number: " + accountNumber));
-        return AccountMapper.mapToAccountDto(account);
+        return withCurrentBalance(metadata, "Account not found with number: " + accountNumber);
+    }
+
+    // Only the metadata is cached; the balance is always read from the row
+    private AccountDto withCurrentBalance(AccountMetadata metadata, String notFoundMessage) {
+        AccountBalanceDto balance = accountRepository.findCurrentBalanceById(metadata.id())
+                .orElseThrow(() -> {
+                    // Deleted on another node since it was cached
+                    accountMetadataCache.evict(metadata.id());
+                    return new ResourceNotFoundException(notFoundMessage);
+                });
+        return AccountMapper.mapToAccountDto(metadata, balance);
     }
 
     @Override
     public AccountDto updateAccount(UUID accountId, AccountDto accountDto) {
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UUID userId = authenticatedUserContext.getCurrentUserId();
         
         Account existingAccount = accountRepository.findById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
         
         // Check if the account belongs to the current user
-        if (!existingAccount.getUser().getId().equals(user.getId())) {
+        if (!existingAccount.getUser().getId().equals(userId)) {
             throw new ResourceNotFoundException("Account not found or access denied");
         }
         
-        Account updatedAccount = AccountMapper.mapToAccountForUpdate(accountDto, existingAccount);
-        updatedAccount.setUpdatedAt(java.time.LocalDateTime.now());
-        Account savedAccount = accountRepository.save(updatedAccount);
+        // The update may overwrite the balance, so the ledger engine flushes and drops what it holds and keeps
+        // transfers off the account until the save commits; the row is re-read after that flush
+        Account savedAccount = ledgerEngine.invalidateAround(existingAccount.getNumber(), () -> {
+            Account currentAccount = accountRepository.findById(accountId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+            Account updatedAccount = AccountMapper.mapToAccountForUpdate(accountDto, currentAccount);
+            updatedAccount.setUpdatedAt(java.time.LocalDateTime.now());
+            try {
+                return accountRepository.save(updatedAccount);
+            } catch (OptimisticLockingFailureException e) {
+                // A transfer changed the balance after it was read; saving would silently undo it
+                throw new ConflictException("Account was changed concurrently, reload it and try again");
+            }
+        });
+        accountMetadataCache.invalidate(accountId);
+        readYourWritesTracker.recordWrite();
         
         return AccountMapper.mapToAccountDto(savedAccount);
     }
 
     @Override
     public void deleteAccount(UUID accountId) {
-        System.out.println("Delete account called with ID: " + accountId);
-        
-        // Get current authenticated user
-        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
-        String username = authentication.getName();
-        System.out.println("Current user: " + username);
-        
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        UUID userId = authenticatedUserContext.getCurrentUserId();
         
         Account account = accountRepository.findById(accountId)
                 .orElseThrow(() -> new ResourceNotFoundException("Account not found with ID: " + accountId));
         
-        System.out.println("Found account: " + account.getId() + " for user: " + account.getUser().getId());
-        
         // Check if the account belongs to the current user
-        if (!account.getUser().getId().equals(user.getId())) {
-            System.out.println("Access denied: account user ID " + account.getUser().getId() + " != current user ID " + user.getId());
+        if (!account.getUser().getId().equals(userId)) {
             throw new ResourceNotFoundException("Account not found or access denied");
         }
         
-        System.out.println("Deleting account: " + accountId);
-        accountRepository.delete(account);
-        System.out.println("Account deleted successfully: " + accountId);
+        // By id, so the row's version is read after the engine's flush
+        ledgerEngine.invalidateAround(account.getNumber(), () -> {
+            accountRepository.deleteById(accountId);
+            return null;
+        });
+        accountMetadataCache.invalidate(accountId);
+        readYourWritesTracker.recordWrite();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public AccountBalanceDto getBalanceAsOf(UUID accountId, LocalDateTime asOf) {
+        UUID userId = authenticatedUserContext.getCurrentUserId();
+        // Owner and creation time come from the metadata cache; no Account entity is loaded
+        AccountMetadata account = accountMetadataCache.findById(accountId)
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+        if (!account.userId().equals(userId)) {
+            throw new ResourceNotFoundException("Account not found or access denied");
+        }
+        if (asOf.isBefore(account.createdAt())) {
+            return new AccountBalanceDto(accountId, BigDecimal.ZERO, asOf);
+        }
+
+        // Archived months are gone from transactions, so sums reaching into them would silently come out wrong
+        Optional<LocalDateTime> archivedUntil = transactionArchiveRepository.findArchivedUntil();
+        if (archivedUntil.isPresent() && asOf.isBefore(archivedUntil.get())) {
+            throw new BadRequestException("Balances before " + archivedUntil.get() + " are archived and cannot be computed");
+        }
+
+        // Nearest day-boundary snapshot plus the transactions since; without one, walk back from the current balance.
+        // A snapshot older than the archive boundary would sum over archived months, so it is not used.
+        Optional<AccountBalanceSnapshot> snapshot =
+                snapshotRepository.findFirstByAccountIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(accountId, asOf)
+                        .filter(found -> archivedUntil.isEmpty() || !found.getSnapshotAt().isBefore(archivedUntil.get()));
+        BigDecimal balance = snapshot
+                .map(found -> found.getBalance().add(
+                        transactionRepository.sumBalanceChangeBetween(accountId, found.getSnapshotAt(), asOf)))
+                .orElseGet(() -> withCurrentBalance(account, "Account not found").getBalance().subtract(
+                        transactionRepository.sumBalanceChangeAfter(accountId, asOf)));
+        return new AccountBalanceDto(accountId, balance, asOf);
     }
-} 
\ No newline at end of file
+}
\ No newline at end of file
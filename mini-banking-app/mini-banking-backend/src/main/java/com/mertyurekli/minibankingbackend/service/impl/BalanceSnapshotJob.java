@@ -0,0 +1,32 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.repository.AccountBalanceSnapshotRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Runs a few minutes after midnight so transfers dated just before the boundary have committed (and been flushed by the in-memory ledger)
+@Component
+@ConditionalOnProperty(name = "balance.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class BalanceSnapshotJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(BalanceSnapshotJob.class);
+
+    private final AccountBalanceSnapshotRepository snapshotRepository;
+
+    public BalanceSnapshotJob(AccountBalanceSnapshotRepository snapshotRepository) {
+        this.snapshotRepository = snapshotRepository;
+    }
+
+    @Scheduled(cron = "${balance.snapshot.cron:0 5 0 * * *}")
+    public void snapshotLastDayBoundary() {
+        LocalDateTime boundary = LocalDate.now().atStartOfDay();
+        int written = snapshotRepository.insertSnapshots(boundary);
+        logger.info("Wrote {} account balance snapshots at {}", written, boundary);
+    }
+}
@@ -0,0 +1,71 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.dto.AccountDto;
+import com.mertyurekli.minibankingbackend.dto.DashboardDto;
+import com.mertyurekli.minibankingbackend.dto.RecentTransactionView;
+import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+import com.mertyurekli.minibankingbackend.mapper.TransactionMapper;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.TransactionRepository;
+import com.mertyurekli.minibankingbackend.service.DashboardService;
+import io.micrometer.core.annotation.Timed;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+@Service
+@AllArgsConstructor
+@Timed(value = "banking.service.dashboard", histogram = true)
+public class DashboardServiceImpl implements DashboardService {
+
+    private static final int DEFAULT_RECENT_TRANSACTIONS = 5;
+    private static final int MAX_RECENT_TRANSACTIONS = 20;
+
+    private AccountRepository accountRepository;
+    private TransactionRepository transactionRepository;
+    private AuthenticatedUserContext authenticatedUserContext;
+
+    // Two queries whatever the number of accounts. Repeatable read so balances and transactions come from one snapshot.
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public DashboardDto getDashboard(Integer recentTransactions) {
+        UUID userId = authenticatedUserContext.getCurrentUserId();
+        int limit = recentTransactions == null
+                ? DEFAULT_RECENT_TRANSACTIONS
+                : Math.min(Math.max(recentTransactions, 0), MAX_RECENT_TRANSACTIONS);
+
+        List<AccountDto> accounts = accountRepository.findAccountDtosByUserId(userId);
+        Map<AccountType, BigDecimal> balanceByType = new EnumMap<>(AccountType.class);
+        BigDecimal totalBalance = BigDecimal.ZERO;
+        Map<UUID, List<TransactionDto>> recent = new LinkedHashMap<>();
+        for (AccountDto account : accounts) {
+            // Summed from the rows already loaded rather than with a separate GROUP BY
+            balanceByType.merge(account.getType(), account.getBalance(), BigDecimal::add);
+            totalBalance = totalBalance.add(account.getBalance());
+            recent.put(account.getId(), new ArrayList<>());
+        }
+
+        if (limit > 0 && !accounts.isEmpty()) {
+            // Rows arrive newest first per account, so appending keeps that order
+            for (RecentTransactionView row : transactionRepository.findLatestForUserAccounts(userId, limit)) {
+                List<TransactionDto> accountTransactions = recent.get(row.getAccountId());
+                // An account created since the account list was read
+                if (accountTransactions != null) {
+                    accountTransactions.add(TransactionMapper.mapToTransactionDto(row));
+                }
+            }
+        }
+        return new DashboardDto(accounts, balanceByType, totalBalance, recent);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,257 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.entity.IdempotencyRecord;
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
+import com.mertyurekli.minibankingbackend.exception.ConflictException;
+import com.mertyurekli.minibankingbackend.repository.IdempotencyRecordRepository;
+import com.mertyurekli.minibankingbackend.service.IdempotencyService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdempotencyServiceImpl.class);
+    private static final int MAX_KEY_LENGTH = 200;
+
+    private final IdempotencyRecordRepository idempotencyRecordRepository;
+    private final AuthenticatedUserContext authenticatedUserContext;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final boolean persistenceEnabled;
+    // Unbounded on purpose: evicting a running entry would let a retry start the same action again
+    private final ConcurrentHashMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final Cache<String, Completed> completed;
+
+    public IdempotencyServiceImpl(IdempotencyRecordRepository idempotencyRecordRepository,
+                                  AuthenticatedUserContext authenticatedUserContext,
+                                  ObjectMapper objectMapper,
+                                  @Value("${idempotency.ttl:24h}") Duration ttl,
+                                  @Value("${idempotency.max-entries:100000}") long maxEntries,
+                                  @Value("${idempotency.wait-timeout:30s}") Duration waitTimeout,
+                                  @Value("${idempotency.persistence.enabled:false}") boolean persistenceEnabled) {
+        this.idempotencyRecordRepository = idempotencyRecordRepository;
+        this.authenticatedUserContext = authenticatedUserContext;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.persistenceEnabled = persistenceEnabled;
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    @Override
+    public ResponseEntity<?> execute(String idempotencyKey, Object request, Supplier<ResponseEntity<?>> action) {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new BadRequestException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        // Keys are scoped per user so two clients can never collide on the same value
+        String id = authenticatedUserContext.getCurrentUserId() + ":" + idempotencyKey;
+        String requestHash = hash(request);
+
+        ResponseEntity<?> response = findCompleted(id, requestHash);
+        if (response != null) {
+            return response;
+        }
+        InFlight created = new InFlight(requestHash);
+        InFlight existing = inFlight.putIfAbsent(id, created);
+        if (existing != null) {
+            return awaitExisting(existing, requestHash);
+        }
+
+        try {
+            // The previous owner may have finished between the lookup above and claiming the key
+            response = findCompleted(id, requestHash);
+            if (response == null && persistenceEnabled) {
+                response = findPersisted(id, requestHash).orElse(null);
+            }
+            if (response == null) {
+                response = action.get();
+                if (persistenceEnabled) {
+                    persistQuietly(id, requestHash, response);
+                }
+            }
+        } catch (RuntimeException e) {
+            // Nothing was committed, so let a later retry run the action again
+            created.response.completeExceptionally(e);
+            inFlight.remove(id, created);
+            throw e;
+        }
+        // Published before the in-flight entry goes away, so a retry always finds one or the other
+        completed.put(id, new Completed(requestHash, response));
+        created.response.complete(response);
+        inFlight.remove(id, created);
+        return response;
+    }
+
+    private ResponseEntity<?> findCompleted(String id, String requestHash) {
+        Completed done = completed.getIfPresent(id);
+        if (done == null) {
+            return null;
+        }
+        if (!done.requestHash.equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        }
+        return done.response;
+    }
+
+    private ResponseEntity<?> awaitExisting(InFlight existing, String requestHash) {
+        if (!existing.requestHash.equals(requestHash)) {
+            throw new BadRequestException("Idempotency-Key was already used with a different request");
+        }
+        try {
+            return existing.response.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw new ConflictException("A request with this Idempotency-Key is still in progress");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while waiting for the original request");
+        }
+    }
+
+    private Optional<ResponseEntity<?>> findPersisted(String id, String requestHash) {
+        return idempotencyRecordRepository.findByIdAndCreatedAtAfter(id, LocalDateTime.now().minus(ttl))
+                .map(record -> {
+                    if (!record.getRequestHash().equals(requestHash)) {
+                        throw new BadRequestException("Idempotency-Key was already used with a different request");
+                    }
+                    return ResponseEntity.status(record.getResponseStatus())
+                            .headers(fromJson(record.getResponseHeaders()))
+                            .contentType(MediaType.parseMediaType(record.getContentType()))
+                            .body(record.getResponseBody());
+                });
+    }
+
+    // The action has already committed: a storage failure must not turn its response into an error the client
+    // retries, so it only costs the replay on other nodes and after a restart
+    private void persistQuietly(String id, String requestHash, ResponseEntity<?> response) {
+        try {
+            persist(id, requestHash, response);
+        } catch (RuntimeException e) {
+            logger.error("Failed to store idempotent response {}; it is only replayed from this node's memory", id, e);
+        }
+    }
+
+    private void persist(String id, String requestHash, ResponseEntity<?> response) {
+        Object body = response.getBody();
+        String contentType;
+        String responseBody;
+        if (body instanceof String text) {
+            contentType = MediaType.TEXT_PLAIN_VALUE;
+            responseBody = text;
+        } else {
+            contentType = MediaType.APPLICATION_JSON_VALUE;
+            responseBody = toJson(body);
+        }
+        try {
+            idempotencyRecordRepository.save(new IdempotencyRecord(id, requestHash, response.getStatusCode().value(),
+                    contentType, responseBody, toJson(replayedHeaders(response)), LocalDateTime.now()));
+        } catch (DataIntegrityViolationException e) {
+            // Another node stored the same key concurrently; the in-memory entry still covers this node
+            logger.warn("Idempotency record {} already exists", id);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${idempotency.cleanup-interval:PT1H}")
+    public void deleteExpiredRecords() {
+        if (persistenceEnabled) {
+            idempotencyRecordRepository.deleteCreatedBefore(LocalDateTime.now().minus(ttl));
+        }
+    }
+
+    private String hash(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Headers the action set itself, such as Location; the content type is stored in its own column
+    private static Map<String, List<String>> replayedHeaders(ResponseEntity<?> response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        response.getHeaders().forEach((name, values) -> {
+            if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name) && !HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                headers.put(name, values);
+            }
+        });
+        return headers;
+    }
+
+    private HttpHeaders fromJson(String json) {
+        HttpHeaders headers = new HttpHeaders();
+        if (json == null) {
+            return headers;
+        }
+        try {
+            Map<String, List<String>> stored = objectMapper.readValue(json, new TypeReference<Map<String, List<String>>>() {
+            });
+            stored.forEach(headers::addAll);
+            return headers;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot read stored idempotent response headers", e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent request or response", e);
+        }
+    }
+
+    private record Completed(String requestHash, ResponseEntity<?> response) {
+    }
+
+    private static final class InFlight {
+        private final String requestHash;
+        private final CompletableFuture<ResponseEntity<?>> response = new CompletableFuture<>();
+
+        private InFlight(String requestHash) {
+            this.requestHash = requestHash;
+        }
+    }
+}
@@ -0,0 +1,354 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.dto.TransferFailure;
+import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
+import com.mertyurekli.minibankingbackend.dto.TransferResultDto;
+import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.entity.LedgerCheckpoint;
+import com.mertyurekli.minibankingbackend.event.TransferEvent;
+import com.mertyurekli.minibankingbackend.exception.InsufficientBalanceException;
+import com.mertyurekli.minibankingbackend.exception.ResourceNotFoundException;
+import com.mertyurekli.minibankingbackend.exception.ServiceUnavailableException;
+import com.mertyurekli.minibankingbackend.mapper.TransactionMapper;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.LedgerCheckpointRepository;
+import com.mertyurekli.minibankingbackend.service.LedgerEngine;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
+
+/**
+ * Keeps hot balances in memory keyed by account number and serializes transfers with striped locks.
+ * Every transfer is appended to a write-ahead log before it is acknowledged and is flushed to the
+ * accounts/transactions tables in batches by a background thread.
+ */
+@Service
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "in-memory")
+public class InMemoryLedgerEngine implements LedgerEngine {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryLedgerEngine.class);
+    private static final String CHECKPOINT_NAME = "in-memory-ledger";
+    private static final String INSERT_TRANSACTION =
+            "INSERT INTO transactions (id, from_account_id, to_account_id, amount, transaction_date, status, from_balance_after, to_balance_after) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // Must match the allocationSize on Transaction.id so these ids never overlap blocks handed to Hibernate
+    private static final int ID_ALLOCATION_SIZE = 50;
+    private static final String ALLOCATE_ID_BLOCKS =
+            "SELECT nextval('transactions_seq') FROM generate_series(1, ?)";
+    private static final String UPDATE_BALANCE =
+            "UPDATE accounts SET balance = ?, updated_at = ?, version = version + 1 WHERE id = ?";
+
+    private final AccountRepository accountRepository;
+    private final LedgerCheckpointRepository checkpointRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Path walPath;
+    private final boolean fsync;
+    private final long flushIntervalMs;
+    private final int flushBatchSize;
+    private final long idleTimeoutNanos;
+
+    private final ConcurrentHashMap<String, LedgerAccount> accounts = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "ledger-flusher");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private LedgerWriteAheadLog wal;
+
+    public InMemoryLedgerEngine(AccountRepository accountRepository,
+                                LedgerCheckpointRepository checkpointRepository,
+                                JdbcTemplate jdbcTemplate,
+                                TransactionTemplate transactionTemplate,
+                                ApplicationEventPublisher eventPublisher,
+                                @Value("${ledger.stripes:1024}") int stripeCount,
+                                @Value("${ledger.wal.path:data/ledger.wal}") String walPath,
+                                @Value("${ledger.wal.fsync:true}") boolean fsync,
+                                @Value("${ledger.flush.interval-ms:50}") long flushIntervalMs,
+                                @Value("${ledger.flush.batch-size:500}") int flushBatchSize,
+                                @Value("${ledger.accounts.idle-timeout:10m}") Duration idleTimeout) {
+        this.accountRepository = accountRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.walPath = Path.of(walPath);
+        this.fsync = fsync;
+        this.flushIntervalMs = flushIntervalMs;
+        this.flushBatchSize = flushBatchSize;
+        this.idleTimeoutNanos = idleTimeout.toNanos();
+        this.stripes = new ReentrantLock[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        long checkpoint = checkpointRepository.findById(CHECKPOINT_NAME)
+                .map(LedgerCheckpoint::getLastSequence)
+                .orElse(0L);
+        wal = new LedgerWriteAheadLog(walPath, fsync, checkpoint);
+        // Replay whatever the previous run acknowledged but never flushed before any balance is read
+        if (wal.unflushedCount() > 0) {
+            logger.info("Replaying {} unflushed ledger entries from {}", wal.unflushedCount(), walPath);
+            flush();
+        }
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+        wal.close();
+    }
+
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        ensureRunning();
+        LedgerEntry entry = apply(fromAccountNumber, toAccountNumber, amount);
+        // Wait for the log to reach disk outside the stripe locks so concurrent transfers share one fsync
+        wal.awaitDurable(entry.sequence());
+    }
+
+    @Override
+    public List<TransferResultDto> transferAll(List<TransferRequestDto> requests) {
+        ensureRunning();
+        List<TransferResultDto> results = new ArrayList<>(requests.size());
+        long lastSequence = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequestDto dto = requests.get(i);
+            try {
+                LedgerEntry entry = apply(dto.getFromAccountNumber(), dto.getToAccountNumber(), TransactionMapper.mapToAmount(dto));
+                lastSequence = entry.sequence();
+                results.add(new TransferResultDto(i, dto.getFromAccountNumber(), dto.getToAccountNumber(), dto.getAmount(), "SUCCESS", null, null));
+            } catch (RuntimeException e) {
+                results.add(new TransferResultDto(i, dto.getFromAccountNumber(), dto.getToAccountNumber(), dto.getAmount(), "FAILED", e.getMessage(), TransferFailure.of(e)));
+            }
+        }
+        // One sync for the whole batch instead of one per item
+        wal.awaitDurable(lastSequence);
+        return results;
+    }
+
+    // After a log failure only the flusher keeps running, so what was already acknowledged still reaches the database
+    private void ensureRunning() {
+        if (wal.isFailed()) {
+            throw new ServiceUnavailableException("Ledger is stopped after a write-ahead log failure");
+        }
+    }
+
+    private LedgerEntry apply(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        while (true) {
+            LedgerAccount from = load(fromAccountNumber, "Sender account not found");
+            LedgerAccount to = load(toAccountNumber, "Receiver account not found");
+
+            // Always lock the lower stripe first so two opposite transfers can never deadlock
+            int fromStripe = stripeIndex(fromAccountNumber);
+            int toStripe = stripeIndex(toAccountNumber);
+            ReentrantLock first = stripes[Math.min(fromStripe, toStripe)];
+            ReentrantLock second = stripes[Math.max(fromStripe, toStripe)];
+            first.lock();
+            if (second != first) {
+                second.lock();
+            }
+            try {
+                // The account was invalidated between load and lock; start over with fresh state
+                if (accounts.get(fromAccountNumber) != from || accounts.get(toAccountNumber) != to) {
+                    continue;
+                }
+                if (from.balance.compareTo(amount) < 0) {
+                    throw new InsufficientBalanceException();
+                }
+                BigDecimal fromBalance = from.balance.subtract(amount);
+                BigDecimal toBalance = (from == to ? fromBalance : to.balance).add(amount);
+                LedgerEntry entry = wal.append(from.id, to.id, amount, fromBalance, toBalance, LocalDateTime.now());
+                from.balance = fromBalance;
+                to.balance = toBalance;
+                from.lastSequence = entry.sequence();
+                to.lastSequence = entry.sequence();
+                return entry;
+            } finally {
+                if (second != first) {
+                    second.unlock();
+                }
+                first.unlock();
+            }
+        }
+    }
+
+    // Holding the stripe lock through the update keeps transfers from reloading the account, or flushing a balance
+    // over the update, until it has committed
+    @Override
+    public <T> T invalidateAround(String accountNumber, Supplier<T> update) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("invalidateAround must run outside a transaction so the update commits before transfers resume");
+        }
+        ReentrantLock stripe = stripes[stripeIndex(accountNumber)];
+        stripe.lock();
+        try {
+            flush();
+            accounts.remove(accountNumber);
+            return update.get();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private LedgerAccount load(String accountNumber, String notFoundMessage) {
+        LedgerAccount account = accounts.get(accountNumber);
+        if (account == null) {
+            // Read under the stripe lock so a load can never interleave with invalidateAround
+            ReentrantLock stripe = stripes[stripeIndex(accountNumber)];
+            stripe.lock();
+            try {
+                account = accounts.get(accountNumber);
+                if (account == null) {
+                    Account entity = accountRepository.findByAccountNumber(accountNumber)
+                            .orElseThrow(() -> new ResourceNotFoundException(notFoundMessage));
+                    account = new LedgerAccount(entity.getId(), entity.getBalance());
+                    accounts.put(accountNumber, account);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        }
+        account.lastUsed = System.nanoTime();
+        return account;
+    }
+
+    // Drops accounts that are idle and fully flushed, so memory tracks the active accounts rather than every account
+    // ever touched. Busy stripes are skipped until the next run.
+    private void evictIdle() {
+        long flushedSequence = wal.flushedSequence();
+        long now = System.nanoTime();
+        accounts.forEach((accountNumber, account) -> {
+            if (now - account.lastUsed < idleTimeoutNanos) {
+                return;
+            }
+            ReentrantLock stripe = stripes[stripeIndex(accountNumber)];
+            if (!stripe.tryLock()) {
+                return;
+            }
+            try {
+                if (account.lastSequence <= flushedSequence && now - account.lastUsed >= idleTimeoutNanos) {
+                    accounts.remove(accountNumber, account);
+                }
+            } finally {
+                stripe.unlock();
+            }
+        });
+    }
+
+    private int stripeIndex(String accountNumber) {
+        return Math.floorMod(accountNumber.hashCode(), stripes.length);
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+            evictIdle();
+        } catch (RuntimeException e) {
+            logger.error("Ledger flush failed, will retry", e);
+        }
+    }
+
+    private void flush() {
+        flushLock.lock();
+        try {
+            List<LedgerEntry> batch;
+            while (!(batch = wal.peek(flushBatchSize)).isEmpty()) {
+                writeBatch(batch);
+                wal.markFlushed(batch.get(batch.size() - 1).sequence());
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void writeBatch(List<LedgerEntry> batch) {
+        long lastSequence = batch.get(batch.size() - 1).sequence();
+        transactionTemplate.executeWithoutResult(status -> {
+            PrimitiveIterator.OfLong ids = allocateIds(batch.size());
+            List<Object[]> transactionRows = new ArrayList<>(batch.size());
+            // Balances in the log are absolute, so only the latest value per account needs writing
+            Map<UUID, Object[]> balanceRows = new LinkedHashMap<>();
+            List<TransferEvent> events = new ArrayList<>(batch.size());
+            for (LedgerEntry entry : batch) {
+                long id = ids.nextLong();
+                Timestamp timestamp = Timestamp.valueOf(entry.transactionDate());
+                transactionRows.add(new Object[]{id, entry.fromAccountId(), entry.toAccountId(), entry.amount(), timestamp, "SUCCESS",
+                        entry.fromBalance(), entry.toBalance()});
+                events.add(new TransferEvent(id, entry.fromAccountId(), entry.toAccountId(), entry.amount(), entry.transactionDate(),
+                        "SUCCESS", entry.fromBalance(), entry.toBalance(), null));
+                balanceRows.put(entry.fromAccountId(), new Object[]{entry.fromBalance(), timestamp, entry.fromAccountId()});
+                balanceRows.put(entry.toAccountId(), new Object[]{entry.toBalance(), timestamp, entry.toAccountId()});
+            }
+            jdbcTemplate.batchUpdate(INSERT_TRANSACTION, transactionRows);
+            jdbcTemplate.batchUpdate(UPDATE_BALANCE, new ArrayList<>(balanceRows.values()));
+            // Committed together with the rows, so a replay after a crash never writes an entry twice
+            checkpointRepository.save(new LedgerCheckpoint(CHECKPOINT_NAME, lastSequence));
+            // Row ids only exist once flushed, so subscribers hear about in-memory transfers from here
+            events.forEach(eventPublisher::publishEvent);
+        });
+    }
+
+    // Same pooled scheme Hibernate uses: each nextval reserves the block of ids ending at the returned value
+    private PrimitiveIterator.OfLong allocateIds(int count) {
+        int blocks = (count + ID_ALLOCATION_SIZE - 1) / ID_ALLOCATION_SIZE;
+        List<Long> blockEnds = jdbcTemplate.queryForList(ALLOCATE_ID_BLOCKS, Long.class, blocks);
+        return blockEnds.stream()
+                .flatMapToLong(end -> LongStream.rangeClosed(end - ID_ALLOCATION_SIZE + 1, end))
+                .iterator();
+    }
+
+    private static final class LedgerAccount {
+        private final UUID id;
+        // Guarded by the account's stripe lock
+        private BigDecimal balance;
+        // Last log entry that touched the account, guarded by the stripe lock
+        private long lastSequence;
+        private volatile long lastUsed;
+
+        private LedgerAccount(UUID id, BigDecimal balance) {
+            this.id = id;
+            this.balance = balance;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.dto.TransferFailure;
+import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
+import com.mertyurekli.minibankingbackend.dto.TransferResultDto;
+import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.entity.Transaction;
+import com.mertyurekli.minibankingbackend.exception.ConflictException;
+import com.mertyurekli.minibankingbackend.exception.InsufficientBalanceException;
+import com.mertyurekli.minibankingbackend.exception.ResourceNotFoundException;
+import com.mertyurekli.minibankingbackend.mapper.TransactionMapper;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.TransactionRepository;
+import com.mertyurekli.minibankingbackend.service.LedgerEngine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+@ConditionalOnProperty(name = "ledger.engine", havingValue = "jpa", matchIfMissing = true)
+public class JpaLedgerEngine implements LedgerEngine {
+
+    private static final String DEBIT_IF_SUFFICIENT =
+            "UPDATE accounts SET balance = balance - ?, version = version + 1 " +
+            "WHERE number = ? AND balance >= ? RETURNING id, balance";
+    private static final String CREDIT =
+            "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE number = ? RETURNING id, balance";
+
+    private final AccountRepository accountRepository;
+    private final TransactionRepository transactionRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final JdbcTemplate jdbcTemplate;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AccountMetadataCache accountMetadataCache;
+    private final TransferMetrics transferMetrics;
+    private final ConcurrencyStrategy concurrency;
+    private final int optimisticMaxAttempts;
+    private final Duration optimisticBackoff;
+    private final int batchChunkSize;
+
+    public JpaLedgerEngine(AccountRepository accountRepository,
+                           TransactionRepository transactionRepository,
+                           TransactionTemplate transactionTemplate,
+                           JdbcTemplate jdbcTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           AccountMetadataCache accountMetadataCache,
+                           TransferMetrics transferMetrics,
+                           @Value("${ledger.jpa.concurrency:pessimistic}") String concurrency,
+                           @Value("${ledger.jpa.optimistic.max-attempts:5}") int optimisticMaxAttempts,
+                           @Value("${ledger.jpa.optimistic.backoff:5ms}") Duration optimisticBackoff,
+                           @Value("${transfer.batch.chunk-size:500}") int batchChunkSize) {
+        this.accountRepository = accountRepository;
+        this.transactionRepository = transactionRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.jdbcTemplate = jdbcTemplate;
+        this.eventPublisher = eventPublisher;
+        this.accountMetadataCache = accountMetadataCache;
+        this.transferMetrics = transferMetrics;
+        this.concurrency = ConcurrencyStrategy.valueOf(concurrency.trim().toUpperCase(Locale.ROOT));
+        this.optimisticMaxAttempts = optimisticMaxAttempts;
+        this.optimisticBackoff = optimisticBackoff;
+        this.batchChunkSize = batchChunkSize;
+    }
+
+    // Effective ledger.jpa.concurrency, e.g. "optimistic"
+    public String getConcurrency() {
+        return concurrency.tag();
+    }
+
+    // ledger.jpa.concurrency picks how concurrent transfers on the same account are kept from losing updates
+    @Override
+    public void transfer(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        switch (concurrency) {
+            case OPTIMISTIC -> transferOptimistic(fromAccountNumber, toAccountNumber, amount);
+            case ATOMIC -> transactionTemplate.executeWithoutResult(
+                    status -> transferAtomic(fromAccountNumber, toAccountNumber, amount));
+            case PESSIMISTIC -> transactionTemplate.executeWithoutResult(
+                    status -> transferLoaded(fromAccountNumber, toAccountNumber, amount, true));
+        }
+    }
+
+    // Each attempt is its own transaction; the @Version check fails the commit when another transfer got there first
+    private void transferOptimistic(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> transferLoaded(fromAccountNumber, toAccountNumber, amount, false));
+                return;
+            } catch (OptimisticLockingFailureException e) {
+                boolean retry = attempt < optimisticMaxAttempts;
+                transferMetrics.recordConflict(ConcurrencyStrategy.OPTIMISTIC.tag(), retry);
+                if (!retry) {
+                    throw new ConflictException("Transfer kept conflicting with concurrent updates, please retry");
+                }
+                backOff(attempt);
+            }
+        }
+    }
+
+    // Full jitter: a random wait below backoff * 2^(attempt - 1), so the transfers that collided spread out
+    private void backOff(int attempt) {
+        long ceiling = optimisticBackoff.toNanos() << Math.min(attempt - 1, 10);
+        try {
+            TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(ceiling + 1));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ConflictException("Interrupted while retrying the transfer");
+        }
+    }
+
+    private void transferLoaded(String fromAccountNumber, String toAccountNumber, BigDecimal amount, boolean lock) {
+        // Gönderen ve alıcı hesapları bul: numaralar önbellekten id'ye çevrilir, bakiyeler her zaman veritabanından okunur
+        UUID fromAccountId = accountMetadataCache.findByNumber(fromAccountNumber).map(AccountMetadata::id)
+                .orElseThrow(() -> new ResourceNotFoundException("Sender account not found"));
+        UUID toAccountId = accountMetadataCache.findByNumber(toAccountNumber).map(AccountMetadata::id)
+                .orElseThrow(() -> new ResourceNotFoundException("Receiver account not found"));
+        List<UUID> accountIds = List.of(fromAccountId, toAccountId);
+        List<Account> rows;
+        if (lock) {
+            long started = System.nanoTime();
+            rows = accountRepository.findAllByIdInForUpdate(accountIds);
+            transferMetrics.recordLockWait(ConcurrencyStrategy.PESSIMISTIC.tag(), System.nanoTime() - started);
+        } else {
+            rows = accountRepository.findAllById(accountIds);
+        }
+        Map<UUID, Account> accounts = rows.stream()
+                .collect(Collectors.toMap(Account::getId, Function.identity()));
+        Account fromAccount = resolve(accounts, fromAccountId, fromAccountNumber, "Sender account not found", lock);
+        Account toAccount = resolve(accounts, toAccountId, toAccountNumber, "Receiver account not found", lock);
+
+        // Bakiyeyi kontrol et
+        if (fromAccount.getBalance().compareTo(amount) < 0) {
+            throw new InsufficientBalanceException();
+        }
+
+        // Bakiyeleri güncelle
+        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+        toAccount.setBalance(toAccount.getBalance().add(amount));
+        accountRepository.save(fromAccount);
+        accountRepository.save(toAccount);
+
+        recordTransfer(fromAccount, toAccount, amount, fromAccount.getBalance(), toAccount.getBalance());
+    }
+
+    // The cached id can be stale when another node renumbered or deleted the account; fall back to the number then
+    private Account resolve(Map<UUID, Account> accounts, UUID accountId, String accountNumber, String notFoundMessage,
+                            boolean lock) {
+        Account account = accounts.get(accountId);
+        if (account != null && account.getNumber().equals(accountNumber)) {
+            return account;
+        }
+        accountMetadataCache.evict(accountId);
+        Optional<Account> byNumber = lock
+                ? accountRepository.findAllByNumberInForUpdate(List.of(accountNumber)).stream().findFirst()
+                : accountRepository.findByAccountNumber(accountNumber);
+        return byNumber.orElseThrow(() -> new ResourceNotFoundException(notFoundMessage));
+    }
+
+    // No read at all: the database checks and applies the debit under its own row lock, in one statement per side
+    private void transferAtomic(String fromAccountNumber, String toAccountNumber, BigDecimal amount) {
+        long started = System.nanoTime();
+        BalanceRow debited;
+        BalanceRow credited;
+        // Rows are updated in account number order, like every other path, so opposite transfers cannot deadlock
+        if (fromAccountNumber.compareTo(toAccountNumber) <= 0) {
+            debited = debit(fromAccountNumber, amount);
+            credited = credit(toAccountNumber, amount);
+        } else {
+            credited = credit(toAccountNumber, amount);
+            debited = debit(fromAccountNumber, amount);
+        }
+        transferMetrics.recordLockWait(ConcurrencyStrategy.ATOMIC.tag(), System.nanoTime() - started);
+
+        // A transfer to the same account ends where it started; both sides report the final balance
+        BigDecimal fromBalance = fromAccountNumber.equals(toAccountNumber) ? credited.balance() : debited.balance();
+        recordTransfer(accountRepository.getReferenceById(debited.id()), accountRepository.getReferenceById(credited.id()),
+                amount, fromBalance, credited.balance());
+    }
+
+    private BalanceRow debit(String accountNumber, BigDecimal amount) {
+        return jdbcTemplate.query(DEBIT_IF_SUFFICIENT, BalanceRow::map, amount, accountNumber, amount).stream()
+                .findFirst()
+                .orElseThrow(() -> accountRepository.findExistingNumbers(List.of(accountNumber)).isEmpty()
+                        ? new ResourceNotFoundException("Sender account not found")
+                        : new InsufficientBalanceException());
+    }
+
+    private BalanceRow credit(String accountNumber, BigDecimal amount) {
+        return jdbcTemplate.query(CREDIT, BalanceRow::map, amount, accountNumber).stream()
+                .findFirst()
+                .orElseThrow(() -> new ResourceNotFoundException("Receiver account not found"));
+    }
+
+    private void recordTransfer(Account fromAccount, Account toAccount, BigDecimal amount,
+                                BigDecimal fromBalanceAfter, BigDecimal toBalanceAfter) {
+        // Transaction kaydı oluştur (tek satır, iki tarafın bakiyesiyle)
+        Transaction transaction = new Transaction();
+        transaction.setFrom(fromAccount);
+        transaction.setTo(toAccount);
+        transaction.setAmount(amount);
+        transaction.setTransactionDate(java.time.LocalDateTime.now());
+        transaction.setStatus("SUCCESS");
+        transaction.setFromBalanceAfter(fromBalanceAfter);
+        transaction.setToBalanceAfter(toBalanceAfter);
+        transactionRepository.save(transaction);
+        eventPublisher.publishEvent(TransactionMapper.mapToTransferEvent(transaction));
+    }
+
+    // Each chunk runs in its own database transaction; set transfer.batch.chunk-size above the batch size for all-or-nothing
+    @Override
+    public List<TransferResultDto> transferAll(List<TransferRequestDto> requests) {
+        List<TransferResultDto> results = new ArrayList<>(requests.size());
+        for (int start = 0; start < requests.size(); start += batchChunkSize) {
+            List<TransferRequestDto> chunk = requests.subList(start, Math.min(start + batchChunkSize, requests.size()));
+            results.addAll(transferChunk(chunk, start));
+        }
+        return results;
+    }
+
+    private List<TransferResultDto> transferChunk(List<TransferRequestDto> chunk, int offset) {
+        try {
+            return transactionTemplate.execute(status -> applyChunk(chunk, offset));
+        } catch (RuntimeException e) {
+            // The whole chunk was rolled back, including items that passed validation
+            List<TransferResultDto> failed = new ArrayList<>(chunk.size());
+            for (int i = 0; i < chunk.size(); i++) {
+                TransferRequestDto dto = chunk.get(i);
+                failed.add(new TransferResultDto(offset + i, dto.getFromAccountNumber(), dto.getToAccountNumber(),
+                        dto.getAmount(), "FAILED", "Batch chunk rolled back: " + e.getMessage(), TransferFailure.of(e)));
+            }
+            return failed;
+        }
+    }
+
+    private List<TransferResultDto> applyChunk(List<TransferRequestDto> chunk, int offset) {
+        Set<String> accountNumbers = new HashSet<>();
+        for (TransferRequestDto dto : chunk) {
+            accountNumbers.add(dto.getFromAccountNumber());
+            accountNumbers.add(dto.getToAccountNumber());
+        }
+        accountNumbers.remove(null);
+
+        Map<String, Account> accounts = new HashMap<>();
+        for (Account account : accountRepository.findAllByNumberInForUpdate(accountNumbers)) {
+            accounts.put(account.getNumber(), account);
+        }
+
+        List<TransferResultDto> results = new ArrayList<>(chunk.size());
+        List<Transaction> transactions = new ArrayList<>(chunk.size());
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < chunk.size(); i++) {
+            TransferRequestDto dto = chunk.get(i);
+            try {
+                BigDecimal amount = TransactionMapper.mapToAmount(dto);
+                Account fromAccount = accounts.get(dto.getFromAccountNumber());
+                if (fromAccount == null) {
+                    throw new ResourceNotFoundException("Sender account not found");
+                }
+                Account toAccount = accounts.get(dto.getToAccountNumber());
+                if (toAccount == null) {
+                    throw new ResourceNotFoundException("Receiver account not found");
+                }
+                if (fromAccount.getBalance().compareTo(amount) < 0) {
+                    throw new InsufficientBalanceException();
+                }
+                fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
+                toAccount.setBalance(toAccount.getBalance().add(amount));
+                transactions.add(new Transaction(null, fromAccount, toAccount, amount, now, "SUCCESS",
+                        fromAccount.getBalance(), toAccount.getBalance(), null));
+                results.add(new TransferResultDto(offset + i, dto.getFromAccountNumber(), dto.getToAccountNumber(),
+                        dto.getAmount(), "SUCCESS", null, null));
+            } catch (RuntimeException e) {
+                results.add(new TransferResultDto(offset + i, dto.getFromAccountNumber(), dto.getToAccountNumber(),
+                        dto.getAmount(), "FAILED", e.getMessage(), TransferFailure.of(e)));
+            }
+        }
+        // Sequence ids are allocated in pooled blocks, so Hibernate can group these inserts into JDBC batches
+        transactionRepository.saveAll(transactions);
+        for (Transaction transaction : transactions) {
+            eventPublisher.publishEvent(TransactionMapper.mapToTransferEvent(transaction));
+        }
+        return results;
+    }
+
+    private enum ConcurrencyStrategy {
+        OPTIMISTIC, PESSIMISTIC, ATOMIC;
+
+        private String tag() {
+            return name().toLowerCase(Locale.ROOT);
+        }
+    }
+
+    private record BalanceRow(UUID id, BigDecimal balance) {
+        private static BalanceRow map(ResultSet rs, int rowNum) throws SQLException {
+            return new BalanceRow(rs.getObject("id", UUID.class), rs.getBigDecimal("balance"));
+        }
+    }
+}
\ No newline at end of file
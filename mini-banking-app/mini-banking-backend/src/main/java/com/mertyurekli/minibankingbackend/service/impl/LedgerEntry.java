@@ -0,0 +1,36 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record LedgerEntry(
+        long sequence,
+        UUID fromAccountId,
+        UUID toAccountId,
+        BigDecimal amount,
+        BigDecimal fromBalance,
+        BigDecimal toBalance,
+        LocalDateTime transactionDate) {
+
+    String toLogLine() {
+        return sequence + ";" + fromAccountId + ";" + toAccountId + ";" + amount.toPlainString() + ";"
+                + fromBalance.toPlainString() + ";" + toBalance.toPlainString() + ";" + transactionDate + "\n";
+    }
+
+    static LedgerEntry parse(String line) {
+        String[] parts = line.split(";");
+        if (parts.length != 7) {
+            throw new IllegalArgumentException("Malformed ledger entry: " + line);
+        }
+        return new LedgerEntry(
+                Long.parseLong(parts[0]),
+                UUID.fromString(parts[1]),
+                UUID.fromString(parts[2]),
+                new BigDecimal(parts[3]),
+                new BigDecimal(parts[4]),
+                new BigDecimal(parts[5]),
+                LocalDateTime.parse(parts[6])
+        );
+    }
+}
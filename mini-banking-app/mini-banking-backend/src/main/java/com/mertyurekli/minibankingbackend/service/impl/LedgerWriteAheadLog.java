@@ -0,0 +1,288 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+/**
+ * Append-only log of ledger entries that have been applied in memory but not yet flushed to the database.
+ * Entries stay in the unflushed queue in sequence order until {@link #markFlushed(long)} confirms they were committed.
+ * <p>
+ * The log is a series of segment files named {@code <path>.<first sequence>}. Every checkpoint starts a new segment
+ * and deletes the closed ones whose entries are all in the database, so the files on disk only ever hold roughly
+ * one flush interval of traffic however long the process runs.
+ */
+public class LedgerWriteAheadLog implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(LedgerWriteAheadLog.class);
+
+    private final Path directory;
+    private final String segmentPrefix;
+    private final boolean fsync;
+    // Lock order: syncLock before appendLock
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final ArrayDeque<LedgerEntry> unflushed = new ArrayDeque<>();
+    // Closed segments, oldest first
+    private final ArrayDeque<Segment> sealed = new ArrayDeque<>();
+    private FileChannel channel;
+    private Path activePath;
+    private long activeFirstSequence;
+    private long lastSequence;
+    private volatile long durableSequence;
+    private volatile boolean failed;
+
+    public LedgerWriteAheadLog(Path path, boolean fsync, long checkpointSequence) throws IOException {
+        this.fsync = fsync;
+        Path absolute = path.toAbsolutePath();
+        this.directory = absolute.getParent();
+        this.segmentPrefix = absolute.getFileName() + ".";
+        Files.createDirectories(directory);
+        this.lastSequence = checkpointSequence;
+        // A single-file log from before segments is older than any segment, so it is read first
+        if (Files.exists(absolute)) {
+            recover(absolute, checkpointSequence);
+        }
+        for (Path segment : listSegments()) {
+            recover(segment, checkpointSequence);
+        }
+        openSegment();
+        this.durableSequence = lastSequence;
+    }
+
+    private List<Path> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> segmentSequence(file) >= 0)
+                    .sorted(Comparator.comparingLong(this::segmentSequence))
+                    .toList();
+        }
+    }
+
+    private long segmentSequence(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(segmentPrefix) || name.length() == segmentPrefix.length()) {
+            return -1;
+        }
+        String suffix = name.substring(segmentPrefix.length());
+        return suffix.chars().allMatch(Character::isDigit) ? Long.parseLong(suffix) : -1;
+    }
+
+    private void recover(Path file, long checkpointSequence) throws IOException {
+        long segmentLastSequence = checkpointSequence;
+        boolean pending = false;
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            int lineNumber = 0;
+            String line = reader.readLine();
+            while (line != null) {
+                lineNumber++;
+                String next = reader.readLine();
+                if (!line.isBlank()) {
+                    LedgerEntry entry;
+                    try {
+                        entry = LedgerEntry.parse(line);
+                    } catch (RuntimeException e) {
+                        // A torn last line means the process died mid-append; the transfer was never acknowledged
+                        if (next == null) {
+                            break;
+                        }
+                        throw new IllegalStateException("Corrupt ledger write-ahead log " + file + " at line " + lineNumber, e);
+                    }
+                    if (entry.sequence() > checkpointSequence) {
+                        unflushed.addLast(entry);
+                        pending = true;
+                    }
+                    segmentLastSequence = Math.max(segmentLastSequence, entry.sequence());
+                    lastSequence = Math.max(lastSequence, entry.sequence());
+                }
+                line = next;
+            }
+        }
+        if (pending) {
+            sealed.addLast(new Segment(file, segmentLastSequence));
+        } else {
+            Files.delete(file);
+        }
+    }
+
+    private void openSegment() throws IOException {
+        long firstSequence = lastSequence + 1;
+        Path path = directory.resolve(segmentPrefix + firstSequence);
+        channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        activePath = path;
+        activeFirstSequence = firstSequence;
+    }
+
+    public LedgerEntry append(UUID fromAccountId, UUID toAccountId, BigDecimal amount,
+                              BigDecimal fromBalance, BigDecimal toBalance, LocalDateTime transactionDate) {
+        appendLock.lock();
+        try {
+            if (failed) {
+                throw new IllegalStateException("Ledger write-ahead log is unavailable after an earlier write failure");
+            }
+            LedgerEntry entry = new LedgerEntry(lastSequence + 1, fromAccountId, toAccountId, amount,
+                    fromBalance, toBalance, transactionDate);
+            ByteBuffer buffer = ByteBuffer.wrap(entry.toLogLine().getBytes(StandardCharsets.UTF_8));
+            try {
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+            } catch (IOException e) {
+                // The file may now end in a partial line, so refuse further appends rather than corrupt the next entry
+                markFailed(e);
+                throw new UncheckedIOException("Failed to append to ledger write-ahead log", e);
+            }
+            lastSequence = entry.sequence();
+            unflushed.addLast(entry);
+            return entry;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    // Group commit: one force() covers every entry written before it started. A failed force does not fail the
+    // caller: its entry is already applied in memory and still reaches the database through the flusher, so the
+    // log is marked failed instead and no further entries are accepted.
+    public void awaitDurable(long sequence) {
+        if (!fsync || durableSequence >= sequence) {
+            return;
+        }
+        syncLock.lock();
+        try {
+            if (durableSequence >= sequence || failed) {
+                return;
+            }
+            long target;
+            FileChannel active;
+            appendLock.lock();
+            try {
+                target = lastSequence;
+                active = channel;
+            } finally {
+                appendLock.unlock();
+            }
+            active.force(false);
+            durableSequence = target;
+        } catch (IOException e) {
+            markFailed(e);
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    public List<LedgerEntry> peek(int maxEntries) {
+        appendLock.lock();
+        try {
+            List<LedgerEntry> entries = new ArrayList<>(Math.min(maxEntries, unflushed.size()));
+            for (LedgerEntry entry : unflushed) {
+                if (entries.size() == maxEntries) {
+                    break;
+                }
+                entries.add(entry);
+            }
+            return entries;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    public void markFlushed(long sequence) {
+        syncLock.lock();
+        appendLock.lock();
+        try {
+            while (!unflushed.isEmpty() && unflushed.peekFirst().sequence() <= sequence) {
+                unflushed.pollFirst();
+            }
+            // A failed segment may end in a partial line; it stays active until the process is restarted
+            if (!failed && lastSequence >= activeFirstSequence) {
+                rotate();
+            }
+            long flushed = flushedSequenceLocked();
+            while (!sealed.isEmpty() && sealed.peekFirst().lastSequence() <= flushed) {
+                Files.deleteIfExists(sealed.pollFirst().path());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to rotate ledger write-ahead log", e);
+        } finally {
+            appendLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    // Called with both locks held, so no append or force can run against the segment being closed
+    private void rotate() throws IOException {
+        FileChannel previous = channel;
+        Path previousPath = activePath;
+        if (fsync) {
+            try {
+                previous.force(false);
+            } catch (IOException e) {
+                markFailed(e);
+                return;
+            }
+            durableSequence = lastSequence;
+        }
+        openSegment();
+        previous.close();
+        sealed.addLast(new Segment(previousPath, lastSequence));
+    }
+
+    private void markFailed(IOException cause) {
+        failed = true;
+        logger.error("Ledger write-ahead log failed; no further transfers are accepted until restart", cause);
+    }
+
+    // True once a write or sync failed; entries already appended are still flushed, new ones are refused
+    public boolean isFailed() {
+        return failed;
+    }
+
+    // Every entry up to this sequence is in the database
+    public long flushedSequence() {
+        appendLock.lock();
+        try {
+            return flushedSequenceLocked();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private long flushedSequenceLocked() {
+        return unflushed.isEmpty() ? lastSequence : unflushed.peekFirst().sequence() - 1;
+    }
+
+    public int unflushedCount() {
+        appendLock.lock();
+        try {
+            return unflushed.size();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private record Segment(Path path, long lastSequence) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,108 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.UUID;
+
+/**
+ * Relays AccountMetadataCache invalidations between nodes over Postgres LISTEN/NOTIFY. One pooled connection is
+ * held for listening. A node that loses that connection clears its whole cache on reconnect, since anything sent
+ * in between is gone.
+ */
+@Component
+@ConditionalOnProperty(name = "account.cache.broadcast.enabled", havingValue = "true")
+public class PostgresAccountCacheBroadcaster {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresAccountCacheBroadcaster.class);
+    private static final String CHANNEL = "account_cache_invalidation";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final AccountMetadataCache accountMetadataCache;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private volatile boolean running;
+    private Thread listener;
+
+    public PostgresAccountCacheBroadcaster(DataSource dataSource,
+                                           JdbcTemplate jdbcTemplate,
+                                           AccountMetadataCache accountMetadataCache,
+                                           @Value("${account.cache.broadcast.poll-interval:500ms}") Duration pollInterval,
+                                           @Value("${account.cache.broadcast.retry-delay:5s}") Duration retryDelay) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.accountMetadataCache = accountMetadataCache;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        listener = new Thread(this::listen, "account-cache-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        listener.interrupt();
+    }
+
+    // Postgres delivers the notification when the surrounding transaction commits, never before
+    public void publish(UUID accountId) {
+        try {
+            jdbcTemplate.queryForList("SELECT pg_notify(?, ?)", CHANNEL, accountId.toString());
+        } catch (DataAccessException e) {
+            // The change itself is already saved; other nodes fall back to the cache TTL
+            logger.warn("Could not broadcast cache invalidation for account {}", accountId, e);
+        }
+    }
+
+    private void listen() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                accountMetadataCache.evictAll();
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        accountMetadataCache.evict(UUID.fromString(notification.getParameter()));
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                logger.warn("Account cache listener lost its connection, retrying in {}", retryDelay, e);
+                try {
+                    Thread.sleep(retryDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,195 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mertyurekli.minibankingbackend.event.TransferEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Relays transfer events between nodes over Postgres LISTEN/NOTIFY, so a stream held on one node hears about
+ * transfers committed on another. Events are queued and sent from one thread, a drained batch per statement, so the
+ * transfer path never waits on the database and events leave in the order they were published. Each node delivers
+ * its own events directly and skips them when they come back over the channel.
+ * <p>
+ * Anything sent while a node is not listening is gone, so a node that had to reconnect closes its streams and lets
+ * the clients re-fetch on reconnect.
+ */
+@Component
+@ConditionalOnProperty(name = "notifications.sse.broadcast.enabled", havingValue = "true")
+public class PostgresTransferEventRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(PostgresTransferEventRelay.class);
+    private static final String CHANNEL = "transfer_events";
+    private static final int MAX_BATCH = 500;
+
+    private final UUID nodeId = UUID.randomUUID();
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final SseNotificationService notificationService;
+    private final Duration pollInterval;
+    private final Duration retryDelay;
+    private final BlockingQueue<TransferEvent> outbox;
+    private final Counter dropped;
+    private volatile boolean running;
+    private Thread publisher;
+    private Thread listener;
+
+    public PostgresTransferEventRelay(DataSource dataSource,
+                                      JdbcTemplate jdbcTemplate,
+                                      ObjectMapper objectMapper,
+                                      SseNotificationService notificationService,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${notifications.sse.broadcast.queue-capacity:10000}") int queueCapacity,
+                                      @Value("${notifications.sse.broadcast.poll-interval:500ms}") Duration pollInterval,
+                                      @Value("${notifications.sse.broadcast.retry-delay:5s}") Duration retryDelay) {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.notificationService = notificationService;
+        this.pollInterval = pollInterval;
+        this.retryDelay = retryDelay;
+        this.outbox = new ArrayBlockingQueue<>(queueCapacity);
+        this.dropped = Counter.builder("notifications.sse.broadcast.dropped")
+                .description("Transfer events not relayed to other nodes because the queue was full or the send failed")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        publisher = new Thread(this::publishLoop, "transfer-event-publisher");
+        publisher.setDaemon(true);
+        publisher.start();
+        listener = new Thread(this::listen, "transfer-event-listener");
+        listener.setDaemon(true);
+        listener.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        publisher.interrupt();
+        listener.interrupt();
+    }
+
+    // Called on the committing thread; never blocks
+    public void publish(TransferEvent event) {
+        if (!outbox.offer(event)) {
+            dropped.increment();
+        }
+    }
+
+    private void publishLoop() {
+        List<TransferEvent> batch = new ArrayList<>(MAX_BATCH);
+        while (running) {
+            try {
+                batch.add(outbox.take());
+            } catch (InterruptedException e) {
+                return;
+            }
+            outbox.drainTo(batch, MAX_BATCH - 1);
+            try {
+                send(batch);
+            } catch (DataAccessException | JsonProcessingException e) {
+                // Local streams already have these events; other nodes' clients catch up when they reconnect
+                dropped.increment(batch.size());
+                logger.warn("Could not relay {} transfer events to other nodes", batch.size(), e);
+            }
+            batch.clear();
+        }
+    }
+
+    // One round trip per batch; Postgres delivers notifications from one statement in the order they were sent
+    private void send(List<TransferEvent> batch) throws JsonProcessingException {
+        String[] payloads = new String[batch.size()];
+        for (int i = 0; i < payloads.length; i++) {
+            payloads[i] = objectMapper.writeValueAsString(new RelayedTransfer(nodeId, batch.get(i)));
+        }
+        jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT pg_notify(?, payload) FROM unnest(?::text[]) AS payload")) {
+                statement.setString(1, CHANNEL);
+                statement.setArray(2, connection.createArrayOf("text", payloads));
+                try (ResultSet ignored = statement.executeQuery()) {
+                    return null;
+                }
+            }
+        });
+    }
+
+    private void listen() {
+        boolean reconnecting = false;
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                if (reconnecting) {
+                    notificationService.disconnectAll();
+                }
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications((int) pollInterval.toMillis());
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        receive(notification.getParameter());
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                reconnecting = true;
+                logger.warn("Transfer event listener lost its connection, retrying in {}", retryDelay, e);
+                try {
+                    Thread.sleep(retryDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private void receive(String payload) {
+        try {
+            RelayedTransfer relayed = objectMapper.readValue(payload, RelayedTransfer.class);
+            if (!nodeId.equals(relayed.origin())) {
+                notificationService.deliver(relayed.event());
+            }
+        } catch (JsonProcessingException e) {
+            logger.warn("Ignoring malformed transfer event notification", e);
+        }
+    }
+
+    record RelayedTransfer(UUID origin, TransferEvent event) {
+    }
+}
\ No newline at end of file
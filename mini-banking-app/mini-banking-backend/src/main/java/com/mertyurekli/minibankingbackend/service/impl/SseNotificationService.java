@@ -0,0 +1,216 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.dto.AccountBalanceDto;
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.event.TransferEvent;
+import com.mertyurekli.minibankingbackend.service.NotificationService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Deque;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fans transfer events out to SSE subscribers. Idle emitters are parked async requests and hold no thread;
+ * events are handed from the committing thread to a few single-thread dispatcher lanes with bounded queues, so
+ * a burst of transfers or a slow client never blocks the transfer path. Each account always uses the same lane,
+ * so its balance events go out in the order they were published. Events that do not fit the queue are dropped
+ * (clients re-fetch on reconnect anyway).
+ * <p>
+ * Streams are held by whichever node the client connected to. With notifications.sse.broadcast.enabled, events are
+ * also relayed to the other nodes over Postgres NOTIFY (see PostgresTransferEventRelay); without it a stream only
+ * hears about transfers committed on its own node, which is only correct for a single instance.
+ */
+@Service
+public class SseNotificationService implements NotificationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SseNotificationService.class);
+
+    private final AccountMetadataCache accountMetadataCache;
+    private final AuthenticatedUserContext authenticatedUserContext;
+    private final ObjectProvider<PostgresTransferEventRelay> relay;
+    private final Duration timeout;
+    private final int maxPerUser;
+    private final Map<UUID, Deque<SseEmitter>> emitters = new ConcurrentHashMap<>();
+    private final AtomicInteger connections = new AtomicInteger();
+    private final ThreadPoolExecutor[] lanes;
+    private final Counter dropped;
+
+    public SseNotificationService(AccountMetadataCache accountMetadataCache,
+                                  AuthenticatedUserContext authenticatedUserContext,
+                                  ObjectProvider<PostgresTransferEventRelay> relay,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${notifications.sse.timeout:30m}") Duration timeout,
+                                  @Value("${notifications.sse.max-per-user:5}") int maxPerUser,
+                                  @Value("${notifications.sse.dispatcher-threads:2}") int dispatcherThreads,
+                                  @Value("${notifications.sse.queue-capacity:10000}") int queueCapacity) {
+        this.accountMetadataCache = accountMetadataCache;
+        this.authenticatedUserContext = authenticatedUserContext;
+        this.relay = relay;
+        this.timeout = timeout;
+        this.maxPerUser = maxPerUser;
+        this.lanes = new ThreadPoolExecutor[dispatcherThreads];
+        for (int i = 0; i < dispatcherThreads; i++) {
+            String name = "sse-dispatcher-" + (i + 1);
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(Math.max(1, queueCapacity / dispatcherThreads)),
+                    runnable -> {
+                        Thread thread = new Thread(runnable, name);
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    new ThreadPoolExecutor.AbortPolicy());
+        }
+        this.dropped = Counter.builder("notifications.sse.dropped")
+                .description("Transfer events not delivered because the dispatcher queue was full")
+                .register(meterRegistry);
+        Gauge.builder("notifications.sse.connections", connections, AtomicInteger::get)
+                .description("Open server-sent event streams")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public SseEmitter subscribe() {
+        UUID userId = authenticatedUserContext.getCurrentUserId();
+        SseEmitter emitter = new SseEmitter(timeout.toMillis());
+        // Added and removed under the map's per-key lock so a concurrent remove never drops a fresh subscriber
+        Deque<SseEmitter> userEmitters = emitters.compute(userId, (id, existing) -> {
+            Deque<SseEmitter> deque = existing != null ? existing : new ConcurrentLinkedDeque<>();
+            deque.addLast(emitter);
+            return deque;
+        });
+        connections.incrementAndGet();
+        emitter.onCompletion(() -> remove(userId, emitter));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> remove(userId, emitter));
+        // Each tab opens its own stream; close the oldest rather than letting one user pile up connections
+        while (userEmitters.size() > maxPerUser) {
+            SseEmitter oldest = userEmitters.pollFirst();
+            if (oldest != null) {
+                oldest.complete();
+            }
+        }
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTransfer(TransferEvent event) {
+        // Relayed even when no stream is open here; the owner may be connected to another node
+        relay.ifAvailable(publisher -> publisher.publish(event));
+        deliver(event);
+    }
+
+    // Sends the event to the streams held on this node
+    public void deliver(TransferEvent event) {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        boolean settled = "SUCCESS".equals(event.status());
+        execute(event.fromAccountId(), () -> dispatch(event, event.fromAccountId(), event.fromBalanceAfter(), settled));
+        // Receivers only hear about transfers that moved money into their account
+        if (settled && !event.toAccountId().equals(event.fromAccountId())) {
+            execute(event.toAccountId(), () -> dispatch(event, event.toAccountId(), event.toBalanceAfter(), true));
+        }
+    }
+
+    // Comments keep proxies from closing idle streams and surface dead connections as send errors
+    @Scheduled(fixedDelayString = "${notifications.sse.heartbeat-interval:PT30S}")
+    public void heartbeat() {
+        if (emitters.isEmpty()) {
+            return;
+        }
+        execute(null, () -> emitters.forEach((userId, userEmitters) ->
+                userEmitters.forEach(emitter -> send(userId, emitter, SseEmitter.event().comment("heartbeat")))));
+    }
+
+    @PreDestroy
+    public void stop() {
+        for (ThreadPoolExecutor lane : lanes) {
+            lane.shutdownNow();
+        }
+        disconnectAll();
+    }
+
+    // Closes every stream on this node; clients reconnect and re-fetch what they missed
+    public void disconnectAll() {
+        emitters.values().forEach(userEmitters -> userEmitters.forEach(SseEmitter::complete));
+    }
+
+    private void execute(UUID accountId, Runnable task) {
+        ThreadPoolExecutor lane = lanes[accountId == null ? 0 : Math.floorMod(accountId.hashCode(), lanes.length)];
+        try {
+            lane.execute(task);
+        } catch (RejectedExecutionException e) {
+            dropped.increment();
+        }
+    }
+
+    private void dispatch(TransferEvent event, UUID accountId, BigDecimal balanceAfter, boolean settled) {
+        AccountMetadata from = accountMetadataCache.findById(event.fromAccountId()).orElse(null);
+        AccountMetadata to = accountMetadataCache.findById(event.toAccountId()).orElse(null);
+        notify(event, accountId, from, to, balanceAfter, settled);
+    }
+
+    private void notify(TransferEvent event, UUID accountId, AccountMetadata from, AccountMetadata to,
+                        BigDecimal balanceAfter, boolean settled) {
+        AccountMetadata owner = accountId.equals(event.fromAccountId()) ? from : to;
+        if (owner == null) {
+            return;
+        }
+        Deque<SseEmitter> userEmitters = emitters.get(owner.userId());
+        if (userEmitters == null) {
+            return;
+        }
+        TransactionDto transaction = new TransactionDto(event.transactionId(), event.fromAccountId(), event.toAccountId(),
+                from == null ? null : from.number(), to == null ? null : to.number(), event.amount(),
+                event.transactionDate(), event.status(), balanceAfter, event.failureReason());
+        for (SseEmitter emitter : userEmitters) {
+            send(owner.userId(), emitter, SseEmitter.event().name("transaction").data(transaction));
+            if (settled && balanceAfter != null) {
+                send(owner.userId(), emitter, SseEmitter.event().name("balance")
+                        .data(new AccountBalanceDto(accountId, balanceAfter, event.transactionDate())));
+            }
+        }
+    }
+
+    private void send(UUID userId, SseEmitter emitter, SseEmitter.SseEventBuilder event) {
+        try {
+            emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+            // The client went away; Spring completes the emitter, this just stops further sends to it
+            remove(userId, emitter);
+        }
+    }
+
+    private void remove(UUID userId, SseEmitter emitter) {
+        emitters.computeIfPresent(userId, (id, userEmitters) -> {
+            if (userEmitters.remove(emitter)) {
+                connections.decrementAndGet();
+            }
+            return userEmitters.isEmpty() ? null : userEmitters;
+        });
+    }
+}
\ No newline at end of file
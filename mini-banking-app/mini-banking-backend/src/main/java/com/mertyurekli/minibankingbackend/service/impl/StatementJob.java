@@ -0,0 +1,25 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.service.StatementService;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.YearMonth;
+
+// Off by default: enable it on one node only, the partitions of a period are not claimed between nodes
+@Component
+@ConditionalOnProperty(name = "statement.job.enabled", havingValue = "true")
+public class StatementJob {
+
+    private final StatementService statementService;
+
+    public StatementJob(StatementService statementService) {
+        this.statementService = statementService;
+    }
+
+    @Scheduled(cron = "${statement.cron:0 0 3 1 * *}")
+    public void generateLastMonth() {
+        statementService.generateStatements(YearMonth.now().minusMonths(1));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,354 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mertyurekli.minibankingbackend.dto.StatementRunReportDto;
+import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.entity.StatementCheckpoint;
+import com.mertyurekli.minibankingbackend.repository.StatementCheckpointRepository;
+import com.mertyurekli.minibankingbackend.repository.TransactionRepository;
+import com.mertyurekli.minibankingbackend.service.StatementService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Month-end statements, one gzipped file per account under statement.output-dir/<period>/<partition>/.
+ * The account id space is cut into statement.partitions equal ranges (ids are random UUIDs, so each range
+ * holds a similar share of accounts) that are worked on in parallel. A partition walks its range in id order,
+ * one read-only transaction per chunk of accounts, and checkpoints the last account written after each chunk,
+ * so running the same period again after a crash only redoes the unfinished chunks.
+ */
+@Service
+public class StatementServiceImpl implements StatementService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StatementServiceImpl.class);
+
+    private static final String CSV_HEADER = "date,transactionId,description,counterpartyAccountNumber,amount,balance\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionRepository transactionRepository;
+    private final StatementCheckpointRepository checkpointRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate readTemplate;
+    private final Path outputDir;
+    private final boolean json;
+    private final int partitions;
+    private final int threads;
+    private final int chunkSize;
+    private final boolean virtualThreads;
+
+    public StatementServiceImpl(JdbcTemplate jdbcTemplate,
+                                TransactionRepository transactionRepository,
+                                StatementCheckpointRepository checkpointRepository,
+                                ObjectMapper objectMapper,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${statement.output-dir:data/statements}") Path outputDir,
+                                @Value("${statement.format:csv}") String format,
+                                @Value("${statement.partitions:64}") int partitions,
+                                @Value("${statement.threads:8}") int threads,
+                                @Value("${statement.chunk-size:200}") int chunkSize,
+                                @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        if (!"csv".equalsIgnoreCase(format) && !"json".equalsIgnoreCase(format)) {
+            throw new IllegalArgumentException("Unsupported statement.format: " + format);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionRepository = transactionRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.objectMapper = objectMapper;
+        this.outputDir = outputDir;
+        this.json = "json".equalsIgnoreCase(format);
+        this.partitions = Math.max(1, partitions);
+        this.threads = Math.max(1, threads);
+        this.chunkSize = Math.max(1, chunkSize);
+        this.virtualThreads = virtualThreads;
+        // Repeatable read so an account's balance and the sums taken against it come from one snapshot
+        this.readTemplate = new TransactionTemplate(transactionManager);
+        this.readTemplate.setReadOnly(true);
+        this.readTemplate.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+    }
+
+    @Override
+    public StatementRunReportDto generateStatements(YearMonth period) {
+        Path periodDir = outputDir.resolve(period.toString());
+        SimpleAsyncTaskExecutor executor = new SimpleAsyncTaskExecutor("statement-");
+        executor.setVirtualThreads(virtualThreads);
+        // Submitting blocks once this many partitions are running; each one holds a pooled connection per chunk
+        executor.setConcurrencyLimit(threads);
+
+        long started = System.nanoTime();
+        List<CompletableFuture<PartitionResult>> results = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            int index = i;
+            results.add(executor.submitCompletable(() -> runPartition(period, periodDir, index)));
+        }
+
+        int skipped = 0;
+        int failed = 0;
+        long accounts = 0;
+        long transactions = 0;
+        long bytes = 0;
+        for (CompletableFuture<PartitionResult> future : results) {
+            PartitionResult result = future.join();
+            if (result.skipped()) {
+                skipped++;
+            }
+            if (result.failed()) {
+                failed++;
+            }
+            accounts += result.accounts();
+            transactions += result.transactions();
+            bytes += result.bytes();
+        }
+        long elapsedMillis = Math.max(1, (System.nanoTime() - started) / 1_000_000);
+        StatementRunReportDto report = new StatementRunReportDto(period.toString(), partitions, skipped, failed,
+                accounts, transactions, bytes, elapsedMillis,
+                accounts * 1000.0 / elapsedMillis, transactions * 1000.0 / elapsedMillis);
+
+        try {
+            Files.createDirectories(periodDir);
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(periodDir.resolve("report.json").toFile(), report);
+        } catch (IOException e) {
+            logger.warn("Could not write the statement report for {}", period, e);
+        }
+        logger.info("Statements {}: {} accounts, {} transactions, {} bytes in {} ms ({} accounts/s, {} transactions/s); "
+                        + "{} partitions skipped, {} failed",
+                period, accounts, transactions, bytes, elapsedMillis,
+                Math.round(report.getAccountsPerSecond()), Math.round(report.getTransactionsPerSecond()),
+                skipped, failed);
+        return report;
+    }
+
+    private PartitionResult runPartition(YearMonth period, Path periodDir, int index) {
+        String checkpointId = period + "/" + partitions + "/" + index;
+        try {
+            StatementCheckpoint checkpoint = checkpointRepository.findById(checkpointId)
+                    .orElseGet(() -> new StatementCheckpoint(checkpointId, null, 0L, 0L, 0L, false, LocalDateTime.now()));
+            if (checkpoint.isCompleted()) {
+                return new PartitionResult(true, false, 0, 0, 0);
+            }
+            UUID lower = partitionStart(index);
+            UUID upper = index + 1 < partitions ? partitionStart(index + 1) : null;
+            Path dir = periodDir.resolve(String.format("%03d", index));
+            Files.createDirectories(dir);
+
+            long accounts = 0;
+            long transactions = 0;
+            long bytes = 0;
+            UUID after = checkpoint.getLastAccountId();
+            while (true) {
+                UUID resumeAfter = after;
+                ChunkResult chunk = readTemplate.execute(status -> writeChunk(period, dir, lower, upper, resumeAfter));
+                if (chunk.accounts() > 0) {
+                    accounts += chunk.accounts();
+                    transactions += chunk.transactions();
+                    bytes += chunk.bytes();
+                    after = chunk.lastAccountId();
+                    checkpoint.setLastAccountId(after);
+                    checkpoint.setAccountsWritten(checkpoint.getAccountsWritten() + chunk.accounts());
+                    checkpoint.setTransactionsWritten(checkpoint.getTransactionsWritten() + chunk.transactions());
+                    checkpoint.setBytesWritten(checkpoint.getBytesWritten() + chunk.bytes());
+                }
+                if (chunk.accounts() < chunkSize) {
+                    checkpoint.setCompleted(true);
+                }
+                checkpoint.setUpdatedAt(LocalDateTime.now());
+                checkpoint = checkpointRepository.save(checkpoint);
+                if (checkpoint.isCompleted()) {
+                    return new PartitionResult(false, false, accounts, transactions, bytes);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            // The other partitions carry on; the next run of the period resumes this one from its checkpoint
+            logger.error("Statement partition {} failed", checkpointId, e);
+            return new PartitionResult(false, true, 0, 0, 0);
+        }
+    }
+
+    // Postgres orders uuids bytewise, i.e. as unsigned 128-bit numbers; partitions split the top 64 bits evenly
+    private UUID partitionStart(int index) {
+        long mostSignificantBits = BigInteger.valueOf(index).shiftLeft(64)
+                .divide(BigInteger.valueOf(partitions))
+                .longValue();
+        return new UUID(mostSignificantBits, 0L);
+    }
+
+    private ChunkResult writeChunk(YearMonth period, Path dir, UUID lower, UUID upper, UUID after) {
+        LocalDateTime from = period.atDay(1).atStartOfDay();
+        // Inclusive bound at timestamp(6) precision; a nanosecond bound would be rounded into the next month
+        LocalDateTime to = period.plusMonths(1).atDay(1).atStartOfDay().minus(1, ChronoUnit.MICROS);
+        List<StatementAccount> accounts = findAccounts(lower, upper, after);
+        long transactions = 0;
+        long bytes = 0;
+        try {
+            for (StatementAccount account : accounts) {
+                BigDecimal closing = account.balance()
+                        .subtract(transactionRepository.sumBalanceChangeAfter(account.id(), to));
+                BigDecimal opening = closing
+                        .subtract(transactionRepository.sumBalanceChangeBetween(account.id(), from, to));
+                String fileName = account.number() + (json ? ".json.gz" : ".csv.gz");
+                Path file = dir.resolve(fileName);
+                // Written aside and renamed, so a crash never leaves a truncated statement under the final name
+                Path partial = dir.resolve(fileName + ".part");
+                try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                    transactions += json
+                            ? writeJson(out, account, period, from, to, opening, closing)
+                            : writeCsv(out, account, period, from, to, opening, closing);
+                }
+                Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                bytes += Files.size(file);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        UUID last = accounts.isEmpty() ? after : accounts.get(accounts.size() - 1).id();
+        return new ChunkResult(accounts.size(), transactions, bytes, last);
+    }
+
+    // Keyset walk of the partition's id range on the primary key index
+    private List<StatementAccount> findAccounts(UUID lower, UUID upper, UUID after) {
+        List<Object> args = new ArrayList<>();
+        StringBuilder sql = new StringBuilder("SELECT id, number, name, type, balance FROM accounts WHERE ");
+        if (after == null) {
+            sql.append("id >= ?");
+            args.add(lower);
+        } else {
+            sql.append("id > ?");
+            args.add(after);
+        }
+        if (upper != null) {
+            sql.append(" AND id < ?");
+            args.add(upper);
+        }
+        sql.append(" ORDER BY id LIMIT ?");
+        args.add(chunkSize);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> new StatementAccount(
+                rs.getObject("id", UUID.class),
+                rs.getString("number"),
+                rs.getString("name"),
+                rs.getString("type"),
+                rs.getBigDecimal("balance")), args.toArray());
+    }
+
+    private long writeCsv(OutputStream out, StatementAccount account, YearMonth period,
+                          LocalDateTime from, LocalDateTime to, BigDecimal opening, BigDecimal closing) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write(period.atDay(1) + ",,Opening balance,,," + opening.toPlainString() + "\n");
+        long count = forEachTransaction(account.id(), from, to, dto -> {
+            boolean outgoing = dto.getFromAccountId().equals(account.id());
+            writer.write(dto.getTransactionDate() + ","
+                    + dto.getId() + ","
+                    + (outgoing ? "Transfer to" : "Transfer from") + ","
+                    + TransactionServiceImpl.csvField(outgoing ? dto.getToAccountNumber() : dto.getFromAccountNumber()) + ","
+                    + (outgoing ? dto.getAmount().negate() : dto.getAmount()).toPlainString() + ","
+                    + (dto.getBalanceAfter() == null ? "" : dto.getBalanceAfter().toPlainString()) + "\n");
+        });
+        writer.write(period.atEndOfMonth() + ",,Closing balance,,," + closing.toPlainString() + "\n");
+        writer.flush();
+        return count;
+    }
+
+    // Laid out for a PDF template: header fields, the lines, then totals that are only known after streaming
+    private long writeJson(OutputStream out, StatementAccount account, YearMonth period,
+                           LocalDateTime from, LocalDateTime to, BigDecimal opening, BigDecimal closing) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        generator.writeStartObject();
+        generator.writeStringField("accountId", account.id().toString());
+        generator.writeStringField("accountNumber", account.number());
+        generator.writeStringField("accountName", account.name());
+        generator.writeStringField("accountType", account.type());
+        generator.writeStringField("period", period.toString());
+        generator.writeStringField("periodStart", period.atDay(1).toString());
+        generator.writeStringField("periodEnd", period.atEndOfMonth().toString());
+        generator.writeNumberField("openingBalance", opening);
+        generator.writeNumberField("closingBalance", closing);
+        BigDecimal[] totals = {BigDecimal.ZERO, BigDecimal.ZERO};
+        generator.writeArrayFieldStart("transactions");
+        long count = forEachTransaction(account.id(), from, to, dto -> {
+            boolean outgoing = dto.getFromAccountId().equals(account.id());
+            generator.writeStartObject();
+            generator.writeNumberField("id", dto.getId());
+            generator.writeStringField("date", dto.getTransactionDate().toString());
+            generator.writeStringField("description", outgoing ? "Transfer to" : "Transfer from");
+            generator.writeStringField("counterpartyAccountNumber",
+                    outgoing ? dto.getToAccountNumber() : dto.getFromAccountNumber());
+            generator.writeNumberField("amount", outgoing ? dto.getAmount().negate() : dto.getAmount());
+            if (dto.getBalanceAfter() == null) {
+                generator.writeNullField("balance");
+            } else {
+                generator.writeNumberField("balance", dto.getBalanceAfter());
+            }
+            generator.writeEndObject();
+            if (outgoing) {
+                totals[1] = totals[1].add(dto.getAmount());
+            } else {
+                totals[0] = totals[0].add(dto.getAmount());
+            }
+        });
+        generator.writeEndArray();
+        generator.writeNumberField("transactionCount", count);
+        generator.writeNumberField("totalCredits", totals[0]);
+        generator.writeNumberField("totalDebits", totals[1]);
+        generator.writeEndObject();
+        generator.flush();
+        return count;
+    }
+
+    private long forEachTransaction(UUID accountId, LocalDateTime from, LocalDateTime to,
+                                    StatementLineWriter lineWriter) throws IOException {
+        long count = 0;
+        try (Stream<TransactionDto> transactions = transactionRepository.streamSettledByAccountIdBetween(accountId, from, to)) {
+            Iterator<TransactionDto> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                lineWriter.write(iterator.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @FunctionalInterface
+    private interface StatementLineWriter {
+        void write(TransactionDto dto) throws IOException;
+    }
+
+    private record StatementAccount(UUID id, String number, String name, String type, BigDecimal balance) {
+    }
+
+    private record ChunkResult(int accounts, long transactions, long bytes, UUID lastAccountId) {
+    }
+
+    private record PartitionResult(boolean skipped, boolean failed, long accounts, long transactions, long bytes) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,217 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.entity.TransactionArchive;
+import com.mertyurekli.minibankingbackend.repository.TransactionArchiveRepository;
+import org.postgresql.PGConnection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Moves a monthly transactions partition into a gzipped CSV file under transactions.archive.dir and drops it,
+ * and reads those files back for the archived history endpoint. Archive rows carry both account numbers, so
+ * they stay readable after the accounts are gone. The files are local: give every node the same directory.
+ */
+@Component
+public class TransactionArchiver {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionArchiver.class);
+
+    // Column order of the archive files; rows are written oldest first
+    private static final String ARCHIVE_SELECT = "SELECT t.id, t.from_account_id, t.to_account_id, fa.number, ta.number, "
+            + "t.amount, t.transaction_date, t.status, t.from_balance_after, t.to_balance_after, t.failure_reason FROM %s t "
+            + "JOIN accounts fa ON fa.id = t.from_account_id JOIN accounts ta ON ta.id = t.to_account_id ORDER BY t.transaction_date, t.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionArchiveRepository archiveRepository;
+    private final Path archiveDir;
+    private final Duration lockTimeout;
+
+    public TransactionArchiver(JdbcTemplate jdbcTemplate,
+                               TransactionTemplate transactionTemplate,
+                               TransactionArchiveRepository archiveRepository,
+                               @Value("${transactions.archive.dir:data/archive}") Path archiveDir,
+                               @Value("${transactions.archive.lock-timeout:5s}") Duration lockTimeout) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.archiveRepository = archiveRepository;
+        this.archiveDir = archiveDir;
+        this.lockTimeout = lockTimeout;
+    }
+
+    // partition is a name produced by TransactionPartitionJob, never user input
+    public void archivePartition(String partition, YearMonth month) throws IOException {
+        Files.createDirectories(archiveDir);
+        Path file = archiveDir.resolve(partition + ".csv.gz");
+        // Unique per attempt, so a concurrent or crashed attempt can never write into this one's file
+        Path partial = Files.createTempFile(archiveDir, partition, ".part");
+        try {
+            Long rows = transactionTemplate.execute(status -> archiveLocked(partition, month, partial, file));
+            if (rows == null) {
+                logger.info("Skipped {}: already archived or being archived by another node", partition);
+            } else {
+                logger.info("Archived {} ({} rows) to {}", partition, rows, file);
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            Files.deleteIfExists(partial);
+        }
+    }
+
+    // One transaction from COPY to DROP: the SHARE lock keeps the month unchanged until it is gone
+    private Long archiveLocked(String partition, YearMonth month, Path partial, Path file) {
+        // Gives up instead of queueing every transfer behind the exclusive lock DETACH needs
+        jdbcTemplate.execute("SET LOCAL lock_timeout = " + lockTimeout.toMillis());
+        // Every node runs the job against the same directory; only one may work on a partition at a time
+        Boolean acquired = jdbcTemplate.queryForObject("SELECT pg_try_advisory_xact_lock(hashtext(?))", Boolean.class, partition);
+        if (!Boolean.TRUE.equals(acquired)) {
+            return null;
+        }
+        Boolean exists = jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, partition);
+        if (!Boolean.TRUE.equals(exists)) {
+            return null;
+        }
+        jdbcTemplate.execute("LOCK TABLE " + partition + " IN SHARE MODE");
+        Long count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + partition, Long.class);
+
+        // COPY streams the month straight from the server into the file without materializing rows
+        Long copied = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try (OutputStream out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(partial)))) {
+                return connection.unwrap(PGConnection.class).getCopyAPI()
+                        .copyOut("COPY (" + String.format(ARCHIVE_SELECT, partition) + ") TO STDOUT WITH (FORMAT csv, HEADER)", out);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        long written;
+        try {
+            // The partition is dropped next, so the file has to be on disk and readable first
+            try (FileChannel channel = FileChannel.open(partial, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            written = countRecords(partial);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (count == null || copied == null || count != copied || copied != written) {
+            throw new IllegalStateException(partition + " has " + count + " rows, COPY sent " + copied
+                    + " and the file holds " + written);
+        }
+        try {
+            Files.move(partial, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        jdbcTemplate.execute("ALTER TABLE transactions DETACH PARTITION " + partition);
+        jdbcTemplate.execute("DROP TABLE " + partition);
+        try {
+            archiveRepository.save(new TransactionArchive(partition, month.atDay(1).atStartOfDay(),
+                    month.plusMonths(1).atDay(1).atStartOfDay(), file.toAbsolutePath().toString(), copied,
+                    Files.size(file), LocalDateTime.now()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return copied;
+    }
+
+    // CSV records in a gzipped archive file, minus the header; quoted line breaks do not end a record
+    private static long countRecords(Path path) throws IOException {
+        long records = 0;
+        boolean quoted = false;
+        try (Reader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8))) {
+            int c;
+            while ((c = reader.read()) != -1) {
+                if (c == '"') {
+                    quoted = !quoted;
+                } else if (c == '\n' && !quoted) {
+                    records++;
+                }
+            }
+        }
+        return Math.max(records - 1, 0);
+    }
+
+    // Scans the archive files in the range one at a time, oldest first; the slow path for months no longer in the
+    // database. Files are opened as the stream reaches them and closed when it moves on or is closed.
+    public Stream<TransactionDto> streamArchived(UUID accountId, YearMonth from, YearMonth to) {
+        return archiveRepository.findOverlapping(from.atDay(1).atStartOfDay(), to.plusMonths(1).atDay(1).atStartOfDay())
+                .stream()
+                .flatMap(archive -> readArchive(Path.of(archive.getFilePath()), accountId));
+    }
+
+    private static Stream<TransactionDto> readArchive(Path path, UUID accountId) {
+        String id = accountId.toString();
+        BufferedReader reader;
+        try {
+            reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(Files.newInputStream(path)), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return reader.lines()
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                })
+                .skip(1)
+                // Almost every row belongs to other accounts; skip those before splitting the line
+                .filter(line -> line.contains(id))
+                .map(AccountImportServiceImpl::splitCsv)
+                .filter(fields -> fields.get(1).equals(id) || fields.get(2).equals(id))
+                .map(fields -> toTransactionDto(fields, accountId));
+    }
+
+    private static TransactionDto toTransactionDto(List<String> fields, UUID accountId) {
+        UUID fromAccountId = UUID.fromString(fields.get(1));
+        return new TransactionDto(
+                Long.parseLong(fields.get(0)),
+                fromAccountId,
+                UUID.fromString(fields.get(2)),
+                fields.get(3),
+                fields.get(4),
+                new BigDecimal(fields.get(5)),
+                // COPY writes timestamps as "2024-01-31 23:59:59.123456"
+                LocalDateTime.parse(fields.get(6).replace(' ', 'T')),
+                fields.get(7),
+                decimalOrNull(fromAccountId.equals(accountId) ? fields.get(8) : fields.get(9)),
+                fields.get(10).isEmpty() ? null : fields.get(10));
+    }
+
+    private static BigDecimal decimalOrNull(String value) {
+        return value.isEmpty() ? null : new BigDecimal(value);
+    }
+}
\ No newline at end of file
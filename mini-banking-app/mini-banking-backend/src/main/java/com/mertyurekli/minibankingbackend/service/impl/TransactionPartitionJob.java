@@ -0,0 +1,102 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the monthly partitions of transactions (see V13) ahead of the calendar and archives the expired ones.
+ * Creating partitions is idempotent and archiving takes a per-partition advisory lock, so every node can run it.
+ */
+@Component
+@ConditionalOnProperty(name = "transactions.partitioning.enabled", havingValue = "true", matchIfMissing = true)
+public class TransactionPartitionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransactionPartitionJob.class);
+
+    private static final Pattern PARTITION_NAME = Pattern.compile("transactions_y(\\d{4})m(\\d{2})");
+
+    private static final String PARTITIONS =
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+            "WHERE i.inhparent = 'transactions'::regclass ORDER BY c.relname";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionArchiver transactionArchiver;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public TransactionPartitionJob(JdbcTemplate jdbcTemplate,
+                                   TransactionArchiver transactionArchiver,
+                                   @Value("${transactions.partitioning.months-ahead:3}") int monthsAhead,
+                                   @Value("${transactions.archive.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionArchiver = transactionArchiver;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        createUpcomingPartitions();
+    }
+
+    @Scheduled(cron = "${transactions.partitioning.cron:0 30 0 * * *}")
+    public void maintain() {
+        createUpcomingPartitions();
+        archiveExpiredPartitions();
+    }
+
+    void createUpcomingPartitions() {
+        YearMonth current = YearMonth.now();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF transactions "
+                    + "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+        }
+        // Rows here mean a month had no partition; the partition for that month cannot be created until they move
+        Boolean strayRows = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM transactions_default)", Boolean.class);
+        if (Boolean.TRUE.equals(strayRows)) {
+            logger.warn("transactions_default holds rows outside the monthly partitions");
+        }
+    }
+
+    void archiveExpiredPartitions() {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth cutoff = YearMonth.now().minusMonths(retentionMonths);
+        List<String> partitions = jdbcTemplate.queryForList(PARTITIONS, String.class);
+        for (String partition : partitions) {
+            Matcher matcher = PARTITION_NAME.matcher(partition);
+            if (!matcher.matches()) {
+                continue;
+            }
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(cutoff)) {
+                continue;
+            }
+            try {
+                transactionArchiver.archivePartition(partition, month);
+            } catch (IOException | RuntimeException e) {
+                // Left in place and retried on the next run
+                logger.error("Could not archive {}", partition, e);
+            }
+        }
+    }
+
+    private static String partitionName(YearMonth month) {
+        return String.format("transactions_y%04dm%02d", month.getYear(), month.getMonthValue());
+    }
+}
\ No newline at end of file
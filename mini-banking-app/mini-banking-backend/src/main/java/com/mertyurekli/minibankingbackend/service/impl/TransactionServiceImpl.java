@@ -1,87 +1,216 @@
 package com.mertyurekli.minibankingbackend.service.impl;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.config.ReadYourWritesTracker;
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.dto.TransactionCursor;
 import com.mertyurekli.minibankingbackend.dto.TransactionDto;
+import com.mertyurekli.minibankingbackend.dto.TransactionKey;
+import com.mertyurekli.minibankingbackend.dto.TransactionPageDto;
 import com.mertyurekli.minibankingbackend.dto.TransferRequestDto;
-import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.dto.TransferResultDto;
 import com.mertyurekli.minibankingbackend.entity.Transaction;
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
 import com.mertyurekli.minibankingbackend.exception.ResourceNotFoundException;
 import com.mertyurekli.minibankingbackend.mapper.TransactionMapper;
 import com.mertyurekli.minibankingbackend.repository.AccountRepository;
 import com.mertyurekli.minibankingbackend.repository.TransactionRepository;
+import com.mertyurekli.minibankingbackend.service.LedgerEngine;
 import com.mertyurekli.minibankingbackend.service.TransactionService;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Iterator;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "banking.service.transactions", histogram = true)
 public class TransactionServiceImpl implements TransactionService {
 
+    private static final int DEFAULT_PAGE_SIZE = 50;
+    private static final int MAX_PAGE_SIZE = 200;
+    private static final int MAX_ARCHIVE_MONTHS = 12;
+    private static final String CSV_HEADER = "id,fromAccountId,toAccountId,fromAccountNumber,toAccountNumber,amount,transactionDate,status,balanceAfter\n";
+
     private TransactionRepository transactionRepository;
+    private LedgerEngine ledgerEngine;
+    private ObjectMapper objectMapper;
+    private TransferMetrics transferMetrics;
     private AccountRepository accountRepository;
+    private AuthenticatedUserContext authenticatedUserContext;
+    private ApplicationEventPublisher eventPublisher;
+    private AccountMetadataCache accountMetadataCache;
+    private ReadYourWritesTracker readYourWritesTracker;
+    private TransactionArchiver transactionArchiver;
 
     @Override
     public void transferMoney(TransferRequestDto dto) {
-        // Gönderen ve alıcı hesapları bul
-        Account fromAccount = accountRepository.findByAccountNumber(dto.getFromAccountNumber())
+        try {
+            BigDecimal amount = TransactionMapper.mapToAmount(dto);
+            ledgerEngine.transfer(dto.getFromAccountNumber(), dto.getToAccountNumber(), amount);
+        } catch (RuntimeException e) {
+            transferMetrics.recordFailure(e);
+            throw e;
+        }
+        transferMetrics.recordSuccess();
+        readYourWritesTracker.recordWrite();
+    }
+
+    @Override
+    public List<TransferResultDto> transferMoneyBatch(List<TransferRequestDto> dtos) {
+        List<TransferResultDto> results = ledgerEngine.transferAll(dtos);
+        transferMetrics.recordBatch(results);
+        readYourWritesTracker.recordWrite();
+        return results;
+    }
+
+    // Only validates and queues the transfer; TransferQueueWorker applies it and moves it to SUCCESS or FAILED
+    @Override
+    @Transactional
+    public TransactionDto submitTransfer(TransferRequestDto dto) {
+        BigDecimal amount = TransactionMapper.mapToAmount(dto);
+        // No balance is read or changed here, so cached metadata and reference proxies are enough for the foreign keys
+        AccountMetadata fromAccount = accountMetadataCache.findByNumber(dto.getFromAccountNumber())
                 .orElseThrow(() -> new ResourceNotFoundException("Sender account not found"));
-        Account toAccount = accountRepository.findByAccountNumber(dto.getToAccountNumber())
+        AccountMetadata toAccount = accountMetadataCache.findByNumber(dto.getToAccountNumber())
                 .orElseThrow(() -> new ResourceNotFoundException("Receiver account not found"));
 
-        java.math.BigDecimal amount = java.math.BigDecimal.valueOf(dto.getAmount());
+        Transaction transfer = new Transaction();
+        transfer.setFrom(accountRepository.getReferenceById(fromAccount.id()));
+        transfer.setTo(accountRepository.getReferenceById(toAccount.id()));
+        transfer.setAmount(amount);
+        transfer.setTransactionDate(LocalDateTime.now());
+        transfer.setStatus("PENDING");
+        Transaction saved = transactionRepository.save(transfer);
+        eventPublisher.publishEvent(TransactionMapper.mapToTransferEvent(saved));
+        // Polling GET /transfer/{id} right after this must not hit a replica that has not seen the row yet
+        readYourWritesTracker.recordWrite();
+        return TransactionMapper.mapToTransactionDto(saved, fromAccount.id(), fromAccount.number(), toAccount.number());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionDto getTransfer(Long transferId) {
+        // Visible to the sender's owner only, like the account endpoints
+        return transactionRepository.findSenderDtoById(transferId, authenticatedUserContext.getCurrentUserId())
+                .orElseThrow(() -> new ResourceNotFoundException("Transfer not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public TransactionPageDto getTransactionHistory(UUID accountId, String cursor, Integer size) {
+        requireOwnAccount(accountId);
+        int pageSize = size == null ? DEFAULT_PAGE_SIZE : Math.min(Math.max(size, 1), MAX_PAGE_SIZE);
+        // Fetch one extra row to learn whether an older page exists without a count query
+        List<TransactionKey> keys;
+        if (cursor == null || cursor.isEmpty()) {
+            keys = transactionRepository.findLatestKeysByAccountId(accountId, pageSize + 1);
+        } else {
+            TransactionCursor position = TransactionCursor.decode(cursor);
+            keys = transactionRepository.findKeysByAccountIdBefore(accountId, position.transactionDate(), position.id(), pageSize + 1);
+        }
+        // Keys arrive newest first
+        List<TransactionDto> transactions = keys.isEmpty() ? List.of() : transactionRepository.findDtosByIdIn(
+                keys.stream().map(TransactionKey::getId).toList(),
+                accountId,
+                keys.get(keys.size() - 1).getTransactionDate(),
+                keys.get(0).getTransactionDate());
 
-        // Bakiyeyi kontrol et
-        if (fromAccount.getBalance().compareTo(amount) < 0) {
-            throw new RuntimeException("Insufficient balance");
+        String nextCursor = null;
+        if (transactions.size() > pageSize) {
+            transactions = transactions.subList(0, pageSize);
+            TransactionDto last = transactions.get(pageSize - 1);
+            nextCursor = new TransactionCursor(last.getTransactionDate(), last.getId()).encode();
         }
+        return new TransactionPageDto(transactions, nextCursor);
+    }
 
-        // Bakiyeleri güncelle
-        fromAccount.setBalance(fromAccount.getBalance().subtract(amount));
-        toAccount.setBalance(toAccount.getBalance().add(amount));
-        accountRepository.save(fromAccount);
-        accountRepository.save(toAccount);
-
-        // Transaction kaydı oluştur (giden)
-        Transaction outTx = new Transaction();
-        outTx.setFrom(fromAccount);
-        outTx.setTo(toAccount);
-        outTx.setAmount(amount.negate());
-        outTx.setTransactionDate(java.time.LocalDateTime.now());
-        outTx.setStatus("SUCCESS");
-        assert outTx.getFrom() != null : "outTx.from null";
-        assert outTx.getTo() != null : "outTx.to null";
-        assert outTx.getAmount() != null : "outTx.amount null";
-        assert outTx.getTransactionDate() != null : "outTx.transactionDate null";
-        assert outTx.getStatus() != null : "outTx.status null";
-        System.out.println("DEBUG: Saving outTx: " + outTx);
-        transactionRepository.save(outTx);
-
-        // Transaction kaydı oluştur (gelen)
-        Transaction inTx = new Transaction();
-        inTx.setFrom(fromAccount);
-        inTx.setTo(toAccount);
-        inTx.setAmount(amount);
-        inTx.setTransactionDate(java.time.LocalDateTime.now());
-        inTx.setStatus("SUCCESS");
-        assert inTx.getFrom() != null : "inTx.from null";
-        assert inTx.getTo() != null : "inTx.to null";
-        assert inTx.getAmount() != null : "inTx.amount null";
-        assert inTx.getTransactionDate() != null : "inTx.transactionDate null";
-        assert inTx.getStatus() != null : "inTx.status null";
-        System.out.println("DEBUG: Saving inTx: " + inTx);
-        transactionRepository.save(inTx);
+    @Override
+    @Transactional(readOnly = true)
+    public void exportTransactionHistory(UUID accountId, String format, OutputStream outputStream) throws IOException {
+        boolean csv = "csv".equalsIgnoreCase(format);
+        if (!csv && !"ndjson".equalsIgnoreCase(format)) {
+            throw new BadRequestException("Unsupported export format: " + format);
+        }
+        // Before anything is written, so a foreign account is a plain 404 rather than a truncated download
+        requireOwnAccount(accountId);
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        if (csv) {
+            writer.write(CSV_HEADER);
+        }
+        try (Stream<TransactionDto> transactions = transactionRepository.streamByAccountId(accountId)) {
+            Iterator<TransactionDto> iterator = transactions.iterator();
+            while (iterator.hasNext()) {
+                TransactionDto dto = iterator.next();
+                if (csv) {
+                    writer.write(toCsvLine(dto));
+                } else {
+                    writer.write(objectMapper.writeValueAsString(dto));
+                    writer.write('\n');
+                }
+            }
+        }
+        writer.flush();
     }
 
     @Override
-    public List<TransactionDto> getTransactionHistory(UUID accountId) {
-        List<Transaction> transactions = transactionRepository.findByFromIdOrToIdOrderByTransactionDateDesc(accountId, accountId);
-        return transactions.stream()
-                .map(TransactionMapper::mapToTransactionDto)
-                .collect(Collectors.toList());
+    public Stream<TransactionDto> streamArchivedTransactionHistory(UUID accountId, YearMonth from, YearMonth to) {
+        if (from.isAfter(to)) {
+            throw new BadRequestException("from must not be after to");
+        }
+        // Every archived month is a full file scan, so the range is capped
+        if (from.plusMonths(MAX_ARCHIVE_MONTHS).isBefore(to.plusMonths(1))) {
+            throw new BadRequestException("At most " + MAX_ARCHIVE_MONTHS + " archived months can be read at once");
+        }
+        // Checked before any archive file is opened
+        requireOwnAccount(accountId);
+        return transactionArchiver.streamArchived(accountId, from, to);
+    }
+
+    // Same rule as the account endpoints: another user's account is reported as missing
+    private void requireOwnAccount(UUID accountId) {
+        UUID userId = authenticatedUserContext.getCurrentUserId();
+        accountMetadataCache.findById(accountId)
+                .filter(account -> account.userId().equals(userId))
+                .orElseThrow(() -> new ResourceNotFoundException("Account not found"));
+    }
+
+    private static String toCsvLine(TransactionDto dto) {
+        return dto.getId() + ","
+                + dto.getFromAccountId() + ","
+                + dto.getToAccountId() + ","
+                + csvField(dto.getFromAccountNumber()) + ","
+                + csvField(dto.getToAccountNumber()) + ","
+                + dto.getAmount().toPlainString() + ","
+                + dto.getTransactionDate() + ","
+                + csvField(dto.getStatus()) + ","
+                + (dto.getBalanceAfter() == null ? "" : dto.getBalanceAfter().toPlainString()) + "\n";
+    }
+
+    // Also used for the statement files written by StatementServiceImpl
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.contains(",") || value.contains("\"") || value.contains("\n")) {
+            return "\"" + value.replace("\"", "\"\"") + "\"";
+        }
+        return value;
     }
-} 
\ No newline at end of file
+}
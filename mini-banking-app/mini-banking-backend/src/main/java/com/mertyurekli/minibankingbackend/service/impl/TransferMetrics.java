@@ -0,0 +1,86 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.dto.TransferFailure;
+import com.mertyurekli.minibankingbackend.dto.TransferResultDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// banking.transfers{outcome, mode}: one increment per transfer, batch and queued items counted individually
+@Component
+public class TransferMetrics {
+
+    private static final String SUCCESS = "success";
+
+    private final MeterRegistry meterRegistry;
+
+    public TransferMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public void recordSuccess() {
+        recordSuccess("single");
+    }
+
+    public void recordSuccess(String mode) {
+        counter(SUCCESS, mode).increment();
+    }
+
+    public void recordFailure(RuntimeException e) {
+        recordFailure(e, "single");
+    }
+
+    public void recordFailure(RuntimeException e, String mode) {
+        counter(outcomeOf(e), mode).increment();
+    }
+
+    public void recordBatch(List<TransferResultDto> results) {
+        for (TransferResultDto result : results) {
+            counter(outcomeOf(result), "batch").increment();
+        }
+    }
+
+    // banking.transfers.lock.wait{strategy}: time to get hold of the account rows, row lock waits included
+    public void recordLockWait(String strategy, long nanos) {
+        Timer.builder("banking.transfers.lock.wait")
+                .description("Time spent locking or conditionally updating account rows for a transfer")
+                .tag("strategy", strategy)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    // banking.transfers.conflicts{strategy, outcome}: version conflicts that were retried or gave up
+    public void recordConflict(String strategy, boolean retried) {
+        Counter.builder("banking.transfers.conflicts")
+                .description("Transfers that lost an optimistic version check")
+                .tag("strategy", strategy)
+                .tag("outcome", retried ? "retried" : "exhausted")
+                .register(meterRegistry)
+                .increment();
+    }
+
+    private Counter counter(String outcome, String mode) {
+        // Registered meters are looked up, not recreated, on later calls
+        return Counter.builder("banking.transfers")
+                .description("Completed transfer attempts by outcome")
+                .tag("outcome", outcome)
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    private static String outcomeOf(RuntimeException e) {
+        return TransferFailure.of(e).tag();
+    }
+
+    private static String outcomeOf(TransferResultDto result) {
+        if ("SUCCESS".equals(result.getStatus())) {
+            return SUCCESS;
+        }
+        return result.getFailure() == null ? TransferFailure.FAILED.tag() : result.getFailure().tag();
+    }
+}
\ No newline at end of file
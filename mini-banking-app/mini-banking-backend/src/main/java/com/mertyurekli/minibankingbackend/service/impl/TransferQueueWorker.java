@@ -0,0 +1,167 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.entity.Account;
+import com.mertyurekli.minibankingbackend.entity.Transaction;
+import com.mertyurekli.minibankingbackend.exception.InsufficientBalanceException;
+import com.mertyurekli.minibankingbackend.mapper.TransactionMapper;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.TransactionRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains PENDING transfers written by TransactionService.submitTransfer. Each worker thread owns one
+ * hash partition of sender accounts and applies its claimed rows in id order, in one database
+ * transaction per batch, so a sender's queued transfers are settled in the order they were accepted.
+ * Each batch holds an advisory lock on its partition, so across nodes a partition still has one drainer at a
+ * time; transfer.async.workers must therefore be the same on every node.
+ */
+@Component
+@ConditionalOnProperty(name = "transfer.async.enabled", havingValue = "true")
+public class TransferQueueWorker {
+
+    private static final Logger logger = LoggerFactory.getLogger(TransferQueueWorker.class);
+
+    private final TransactionRepository transactionRepository;
+    private final AccountRepository accountRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransferMetrics transferMetrics;
+    private final ApplicationEventPublisher eventPublisher;
+    private final String ledgerEngine;
+    private final int workers;
+    private final int batchSize;
+    private final Duration pollInterval;
+    private ScheduledExecutorService executor;
+
+    public TransferQueueWorker(TransactionRepository transactionRepository,
+                               AccountRepository accountRepository,
+                               TransactionTemplate transactionTemplate,
+                               TransferMetrics transferMetrics,
+                               ApplicationEventPublisher eventPublisher,
+                               @Value("${ledger.engine:jpa}") String ledgerEngine,
+                               @Value("${transfer.async.workers:4}") int workers,
+                               @Value("${transfer.async.batch-size:200}") int batchSize,
+                               @Value("${transfer.async.poll-interval:100ms}") Duration pollInterval) {
+        this.transactionRepository = transactionRepository;
+        this.accountRepository = accountRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.transferMetrics = transferMetrics;
+        this.eventPublisher = eventPublisher;
+        this.ledgerEngine = ledgerEngine;
+        this.workers = workers;
+        this.batchSize = batchSize;
+        this.pollInterval = pollInterval;
+    }
+
+    @PostConstruct
+    public void start() {
+        // The workers settle balances directly in the database, which the in-memory engine would not see
+        if (!"jpa".equals(ledgerEngine)) {
+            throw new IllegalStateException("transfer.async.enabled requires ledger.engine=jpa");
+        }
+        AtomicInteger counter = new AtomicInteger();
+        executor = Executors.newScheduledThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "transfer-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int partition = 0; partition < workers; partition++) {
+            int owned = partition;
+            executor.scheduleWithFixedDelay(() -> drainQuietly(owned),
+                    pollInterval.toMillis(), pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(10, TimeUnit.SECONDS);
+    }
+
+    private void drainQuietly(int partition) {
+        try {
+            // Keep going while batches come back full; otherwise wait for the next poll
+            while (applyBatch(partition) == batchSize) {
+                if (Thread.currentThread().isInterrupted()) {
+                    return;
+                }
+            }
+        } catch (RuntimeException e) {
+            // The batch rolled back and its rows are still PENDING, so the next poll retries them
+            logger.error("Transfer worker {} failed to apply a batch", partition, e);
+        }
+    }
+
+    private int applyBatch(int partition) {
+        List<RuntimeException> outcomes = new ArrayList<>();
+        Integer applied = transactionTemplate.execute(status -> {
+            // Another node is draining this partition; it will pick up everything pending
+            if (!transactionRepository.tryLockQueuePartition(partition)) {
+                return 0;
+            }
+            List<Long> ids = transactionRepository.claimPendingIds(workers, partition, batchSize);
+            if (ids.isEmpty()) {
+                return 0;
+            }
+            // Lock the accounts before loading the transfers so their balances are read under the lock
+            accountRepository.findAllInvolvedInTransactionsForUpdate(ids);
+            List<Transaction> transfers = transactionRepository.findAllWithAccountsByIdIn(ids).stream()
+                    .sorted(Comparator.comparing(Transaction::getId))
+                    .toList();
+            LocalDateTime now = LocalDateTime.now();
+            for (Transaction transfer : transfers) {
+                outcomes.add(settle(transfer, now));
+                eventPublisher.publishEvent(TransactionMapper.mapToTransferEvent(transfer));
+            }
+            return ids.size();
+        });
+        // Counted only once the batch has committed
+        for (RuntimeException failure : outcomes) {
+            if (failure == null) {
+                transferMetrics.recordSuccess("async");
+            } else {
+                transferMetrics.recordFailure(failure, "async");
+            }
+        }
+        return applied == null ? 0 : applied;
+    }
+
+    // Returns the failure the transfer was settled with, or null when it succeeded
+    private RuntimeException settle(Transaction transfer, LocalDateTime now) {
+        Account fromAccount = transfer.getFrom();
+        Account toAccount = transfer.getTo();
+        // Dated when applied, so balance snapshots and as-of queries see it on the right side of a boundary
+        transfer.setTransactionDate(now);
+        if (fromAccount.getBalance().compareTo(transfer.getAmount()) < 0) {
+            InsufficientBalanceException failure = new InsufficientBalanceException();
+            transfer.setStatus("FAILED");
+            transfer.setFailureReason(failure.getMessage());
+            return failure;
+        }
+        fromAccount.setBalance(fromAccount.getBalance().subtract(transfer.getAmount()));
+        toAccount.setBalance(toAccount.getBalance().add(transfer.getAmount()));
+        fromAccount.setUpdatedAt(now);
+        toAccount.setUpdatedAt(now);
+        transfer.setStatus("SUCCESS");
+        transfer.setFromBalanceAfter(fromAccount.getBalance());
+        transfer.setToBalanceAfter(toAccount.getBalance());
+        return null;
+    }
+}
\ No newline at end of file
@@ -1,5 +1,6 @@
 package com.mertyurekli.minibankingbackend.service.impl;
 
+import com.mertyurekli.minibankingbackend.config.JwtPrincipalCache;
 import com.mertyurekli.minibankingbackend.dto.UserDto;
 import com.mertyurekli.minibankingbackend.dto.UserLoginDto;
 import com.mertyurekli.minibankingbackend.dto.UserRegistrationDto;
@@ -9,6 +10,7 @@ import com.mertyurekli.minibankingbackend.mapper.UserMapper;
 import com.mertyurekli.minibankingbackend.repository.UserRepository;
 import com.mertyurekli.minibankingbackend.service.UserService;
 import com.mertyurekli.minibankingbackend.util.JwtUtil;
+import io.micrometer.core.annotation.Timed;
 import lombok.AllArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -18,11 +20,13 @@ import java.util.UUID;
 
 @Service
 @AllArgsConstructor
+@Timed(value = "banking.service.users", histogram = true)
 public class UserServiceImpl implements UserService {
 
     private UserRepository userRepository;
     private PasswordEncoder passwordEncoder;
     private JwtUtil jwtUtil;
+    private JwtPrincipalCache principalCache;
 
     @Override
     public UserDto registerUser(UserRegistrationDto registrationDto) {
@@ -56,6 +60,12 @@ public class UserServiceImpl implements UserService {
         if (!passwordEncoder.matches(loginDto.getPassword(), user.getPassword())) {
             throw new RuntimeException("Invalid credentials");
         }
+
+        // Re-hash passwords stored with a lower cost than security.bcrypt.strength now that we have the raw value
+        if (passwordEncoder.upgradeEncoding(user.getPassword())) {
+            user.setPassword(passwordEncoder.encode(loginDto.getPassword()));
+            userRepository.save(user);
+        }
         
         // Generate JWT token
         return jwtUtil.generateToken(user.getId(), user.getUsername());
@@ -77,6 +87,7 @@ public class UserServiceImpl implements UserService {
         
         User updatedUser = UserMapper.mapToUserForUpdate(userDto, existingUser);
         User savedUser = userRepository.save(updatedUser);
+        principalCache.invalidateUser(existingUser.getUsername());
         
         return UserMapper.mapToUserDto(savedUser);
     }
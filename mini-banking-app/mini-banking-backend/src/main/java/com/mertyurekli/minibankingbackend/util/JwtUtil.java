@@ -1,6 +1,7 @@
 package com.mertyurekli.minibankingbackend.util;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
 import org.springframework.stereotype.Component;
@@ -17,6 +18,8 @@ public class JwtUtil {
 
     private static final SecretKey SECRET_KEY = Keys.hmacShaKeyFor("your-secret-key-here-make-it-long-enough-for-hs256".getBytes());
     private static final long JWT_TOKEN_VALIDITY = 5 * 60 * 60; // 5 hours
+    // Immutable and thread-safe, so one instance serves every request
+    private static final JwtParser PARSER = Jwts.parser().verifyWith(SECRET_KEY).build();
 
     public String generateToken(UUID userId, String username) {
         Map<String, Object> claims = new HashMap<>();
@@ -48,16 +51,13 @@ public class JwtUtil {
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = parseClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    private Claims extractAllClaims(String token) {
-        return Jwts.parser()
-                .verifyWith(SECRET_KEY)
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    // Verifies the signature and rejects expired tokens in the same pass
+    public Claims parseClaims(String token) {
+        return PARSER.parseSignedClaims(token).getPayload();
     }
 
     private Boolean isTokenExpired(String token) {
@@ -65,7 +65,7 @@ public class JwtUtil {
     }
 
     public UUID extractUserId(String token) {
-        Claims claims = extractAllClaims(token);
+        Claims claims = parseClaims(token);
         return UUID.fromString(claims.get("userId", String.class));
     }
 } 
\ No newline at end of file
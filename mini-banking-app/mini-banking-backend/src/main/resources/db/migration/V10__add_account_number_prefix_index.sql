@@ -0,0 +1,4 @@
+-- Prefix matches on account number within one user's accounts (AccountRepository.searchByUserId).
+-- text_pattern_ops lets LIKE 'term%' use the btree whatever the database collation.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_user_number_prefix
+    ON accounts (user_id, number text_pattern_ops);
\ No newline at end of file
@@ -0,0 +1,2 @@
+-- Optimistic locking for Account (ledger.jpa.concurrency=optimistic); existing rows start at version 0
+ALTER TABLE accounts ADD COLUMN version BIGINT NOT NULL DEFAULT 0;
\ No newline at end of file
@@ -0,0 +1,10 @@
+-- Progress of month-end statement runs, one row per period and account id range
+CREATE TABLE statement_checkpoints (
+    id                   VARCHAR(255) PRIMARY KEY,
+    last_account_id      UUID,
+    accounts_written     BIGINT NOT NULL,
+    transactions_written BIGINT NOT NULL,
+    bytes_written        BIGINT NOT NULL,
+    completed            BOOLEAN NOT NULL,
+    updated_at           TIMESTAMP(6) NOT NULL
+);
\ No newline at end of file
@@ -0,0 +1,62 @@
+-- Range-partitions transactions by month of transaction_date so history queries and vacuum only touch the
+-- months they need. Rewrites the table once: run it in a maintenance window. TransactionPartitionJob creates
+-- the following months ahead of time and archives months older than transactions.archive.retention-months.
+ALTER TABLE transactions RENAME TO transactions_unpartitioned;
+
+-- The primary key of a partitioned table must contain the partition key; ids still come from transactions_seq
+CREATE TABLE transactions (
+    id                 BIGINT NOT NULL,
+    from_account_id    UUID NOT NULL REFERENCES accounts (id),
+    to_account_id      UUID NOT NULL REFERENCES accounts (id),
+    amount             NUMERIC(38, 2) NOT NULL,
+    transaction_date   TIMESTAMP(6) NOT NULL,
+    status             VARCHAR(255) NOT NULL,
+    from_balance_after NUMERIC(38, 2),
+    to_balance_after   NUMERIC(38, 2),
+    failure_reason     VARCHAR(255),
+    PRIMARY KEY (id, transaction_date)
+) PARTITION BY RANGE (transaction_date);
+
+-- Catches rows outside every monthly partition, e.g. after the job was off for months; normally empty
+CREATE TABLE transactions_default PARTITION OF transactions DEFAULT;
+
+-- transactions_yYYYYmMM from the oldest existing row up to three months ahead
+DO $$
+DECLARE
+    month DATE := date_trunc('month', LEAST(
+            COALESCE((SELECT MIN(transaction_date) FROM transactions_unpartitioned), LOCALTIMESTAMP), LOCALTIMESTAMP));
+    last  DATE := date_trunc('month', LOCALTIMESTAMP) + INTERVAL '3 months';
+BEGIN
+    WHILE month <= last LOOP
+        EXECUTE format('CREATE TABLE %I PARTITION OF transactions FOR VALUES FROM (%L) TO (%L)',
+                       'transactions_' || to_char(month, '"y"YYYY"m"MM'), month, (month + INTERVAL '1 month')::date);
+        month := month + INTERVAL '1 month';
+    END LOOP;
+END $$;
+
+INSERT INTO transactions (id, from_account_id, to_account_id, amount, transaction_date, status,
+                          from_balance_after, to_balance_after, failure_reason)
+SELECT id, from_account_id, to_account_id, amount, transaction_date, status,
+       from_balance_after, to_balance_after, failure_reason
+FROM transactions_unpartitioned;
+
+DROP TABLE transactions_unpartitioned;
+
+-- Same indexes as before, now one per partition: a month's index stops growing once the month is over.
+-- Built after the copy, and inside the migration transaction since partitioned indexes cannot be built CONCURRENTLY.
+CREATE INDEX idx_transactions_from_account_date ON transactions (from_account_id, transaction_date DESC, id DESC);
+CREATE INDEX idx_transactions_to_account_date ON transactions (to_account_id, transaction_date DESC, id DESC);
+CREATE INDEX idx_transactions_pending ON transactions (id) WHERE status = 'PENDING';
+
+ANALYZE transactions;
+
+-- Months moved out of the database into gzipped CSV files, read by the archived history endpoint
+CREATE TABLE transaction_archives (
+    partition_name VARCHAR(255) PRIMARY KEY,
+    range_start    TIMESTAMP(6) NOT NULL,
+    range_end      TIMESTAMP(6) NOT NULL,
+    file_path      VARCHAR(1024) NOT NULL,
+    row_count      BIGINT NOT NULL,
+    bytes          BIGINT NOT NULL,
+    archived_at    TIMESTAMP(6) NOT NULL
+);
\ No newline at end of file
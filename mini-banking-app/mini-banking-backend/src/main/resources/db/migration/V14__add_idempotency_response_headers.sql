@@ -0,0 +1,2 @@
+-- Headers of the stored response (e.g. the Location of a queued transfer) so replays can restore them; JSON object
+ALTER TABLE idempotency_keys ADD COLUMN response_headers TEXT;
\ No newline at end of file
@@ -0,0 +1,10 @@
+-- Single-use notification stream tickets; kept in the database so a ticket issued by one node can be redeemed on
+-- any other. Only the SHA-256 of the ticket is stored.
+CREATE TABLE stream_tickets (
+    ticket_hash VARCHAR(64) PRIMARY KEY,
+    user_id     UUID NOT NULL,
+    username    VARCHAR(255) NOT NULL,
+    expires_at  TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_stream_tickets_expires_at ON stream_tickets (expires_at);
\ No newline at end of file
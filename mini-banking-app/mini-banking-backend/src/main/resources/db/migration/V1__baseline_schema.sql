@@ -0,0 +1,38 @@
+-- Schema previously created by spring.jpa.hibernate.ddl-auto=update.
+-- Guarded with IF NOT EXISTS so it also applies cleanly to databases that already have it.
+
+CREATE TABLE IF NOT EXISTS users (
+    id         UUID PRIMARY KEY,
+    username   VARCHAR(255),
+    password   VARCHAR(255),
+    email      VARCHAR(255),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS accounts (
+    id         UUID PRIMARY KEY,
+    number     VARCHAR(255) NOT NULL UNIQUE,
+    name       VARCHAR(255) NOT NULL,
+    balance    NUMERIC(38, 2) NOT NULL,
+    type       VARCHAR(255) NOT NULL CHECK (type IN ('SAVING', 'CREDIT')),
+    created_at TIMESTAMP(6) NOT NULL,
+    updated_at TIMESTAMP(6) NOT NULL,
+    user_id    UUID NOT NULL REFERENCES users (id)
+);
+
+CREATE TABLE IF NOT EXISTS transactions (
+    id               BIGINT PRIMARY KEY,
+    from_account_id  UUID NOT NULL REFERENCES accounts (id),
+    to_account_id    UUID NOT NULL REFERENCES accounts (id),
+    amount           NUMERIC(38, 2) NOT NULL,
+    transaction_date TIMESTAMP(6) NOT NULL,
+    status           VARCHAR(255) NOT NULL
+);
+
+CREATE SEQUENCE IF NOT EXISTS transactions_seq START WITH 1 INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS ledger_checkpoints (
+    name          VARCHAR(255) PRIMARY KEY,
+    last_sequence BIGINT NOT NULL
+);
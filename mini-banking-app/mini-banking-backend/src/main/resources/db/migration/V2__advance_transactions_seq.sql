@@ -0,0 +1,4 @@
+-- transactions.id moved from an identity column to the pooled transactions_seq sequence;
+-- advance the sequence past ids written before the switch.
+SELECT setval('transactions_seq', (SELECT MAX(id) FROM transactions))
+WHERE (SELECT MAX(id) FROM transactions) > (SELECT last_value FROM transactions_seq);
@@ -0,0 +1,20 @@
+-- History pages read each side of (from_account_id = ? OR to_account_id = ?) as its own
+-- index range ordered by (transaction_date DESC, id DESC), see TransactionRepository.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_from_account_date
+    ON transactions (from_account_id, transaction_date DESC, id DESC);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_to_account_date
+    ON transactions (to_account_id, transaction_date DESC, id DESC);
+
+-- AccountRepository.findByUser and the user filter of the search query
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_user_id
+    ON accounts (user_id);
+
+-- LIKE '%term%' on number/name can only use trigram indexes
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_number_trgm
+    ON accounts USING gin (number gin_trgm_ops);
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_accounts_name_trgm
+    ON accounts USING gin (name gin_trgm_ops);
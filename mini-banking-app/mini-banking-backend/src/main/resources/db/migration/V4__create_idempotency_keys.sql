@@ -0,0 +1,10 @@
+CREATE TABLE idempotency_keys (
+    id              VARCHAR(255) PRIMARY KEY,
+    request_hash    VARCHAR(255) NOT NULL,
+    response_status INTEGER NOT NULL,
+    content_type    VARCHAR(255) NOT NULL,
+    response_body   TEXT NOT NULL,
+    created_at      TIMESTAMP(6) NOT NULL
+);
+
+CREATE INDEX idx_idempotency_keys_created_at ON idempotency_keys (created_at);
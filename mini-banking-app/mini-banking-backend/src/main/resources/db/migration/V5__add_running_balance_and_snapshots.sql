@@ -0,0 +1,31 @@
+-- Post-transaction balance of the row's owner: the sender for the negative row, the receiver for the positive one
+ALTER TABLE transactions ADD COLUMN balance_after NUMERIC(38, 2);
+
+-- Back-fill existing rows by walking each account's history backwards from its current balance.
+-- Balances edited directly through the account update endpoint are not in the history, so these
+-- values are only as accurate as that history; rows written from now on carry the exact value.
+UPDATE transactions t
+SET balance_after = history.balance_after
+FROM (
+    SELECT owned.id,
+           a.balance - COALESCE(SUM(owned.amount) OVER (
+               PARTITION BY owned.owner_id
+               ORDER BY owned.transaction_date DESC, owned.id DESC
+               ROWS BETWEEN UNBOUNDED PRECEDING AND 1 PRECEDING), 0) AS balance_after
+    FROM (
+        SELECT id, amount, transaction_date,
+               CASE WHEN amount < 0 THEN from_account_id ELSE to_account_id END AS owner_id
+        FROM transactions
+    ) owned
+    JOIN accounts a ON a.id = owned.owner_id
+) history
+WHERE t.id = history.id;
+
+-- Balance of each account at a day boundary, i.e. including every transaction dated before snapshot_at
+CREATE TABLE account_balance_snapshots (
+    id          BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    account_id  UUID NOT NULL REFERENCES accounts (id) ON DELETE CASCADE,
+    snapshot_at TIMESTAMP(6) NOT NULL,
+    balance     NUMERIC(38, 2) NOT NULL,
+    CONSTRAINT uk_account_balance_snapshots_account_at UNIQUE (account_id, snapshot_at)
+);
@@ -0,0 +1,53 @@
+-- Collapse the debit (negative) and credit (positive) row that every transfer used to write into one row
+-- with a positive amount and both post-transfer balances.
+
+ALTER TABLE transactions
+    ADD COLUMN from_balance_after NUMERIC(38, 2),
+    ADD COLUMN to_balance_after   NUMERIC(38, 2);
+
+-- Both legs of a transfer share from/to/amount and the credit was always written after the debit, so the
+-- n-th debit of a (from, to, amount) group pairs with the n-th credit of the same group
+CREATE TEMPORARY TABLE transfer_pairs ON COMMIT DROP AS
+WITH legs AS (
+    SELECT id, from_account_id, to_account_id, ABS(amount) AS amount, amount < 0 AS debit, balance_after,
+           ROW_NUMBER() OVER (PARTITION BY from_account_id, to_account_id, ABS(amount), amount < 0 ORDER BY id) AS leg
+    FROM transactions
+)
+SELECT d.id AS debit_id, c.id AS credit_id, c.balance_after AS to_balance_after
+FROM legs d
+JOIN legs c ON c.from_account_id = d.from_account_id
+           AND c.to_account_id = d.to_account_id
+           AND c.amount = d.amount
+           AND c.leg = d.leg
+           AND NOT c.debit
+WHERE d.debit;
+
+CREATE INDEX ON transfer_pairs (debit_id);
+CREATE INDEX ON transfer_pairs (credit_id);
+ANALYZE transfer_pairs;
+
+-- Paired debits become the transfer row
+UPDATE transactions t
+SET amount = -t.amount,
+    from_balance_after = t.balance_after,
+    to_balance_after = p.to_balance_after
+FROM transfer_pairs p
+WHERE t.id = p.debit_id;
+
+DELETE FROM transactions t
+USING transfer_pairs p
+WHERE t.id = p.credit_id;
+
+-- Legs without a partner are kept as transfers with only their own side's balance
+UPDATE transactions
+SET amount = -amount,
+    from_balance_after = balance_after
+WHERE amount < 0;
+
+UPDATE transactions t
+SET to_balance_after = t.balance_after
+WHERE t.from_balance_after IS NULL
+  AND t.to_balance_after IS NULL
+  AND NOT EXISTS (SELECT 1 FROM transfer_pairs p WHERE p.debit_id = t.id);
+
+ALTER TABLE transactions DROP COLUMN balance_after;
@@ -0,0 +1,5 @@
+-- Async transfers are queued as PENDING rows and settled as SUCCESS or FAILED
+ALTER TABLE transactions ADD COLUMN IF NOT EXISTS failure_reason VARCHAR(255);
+
+-- Only queued rows are indexed, so the index stays small however long the history grows
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_transactions_pending ON transactions (id) WHERE status = 'PENDING';
@@ -0,0 +1,4 @@
+-- Block counter for AccountNumberGenerator: each nextval reserves numbers [value * 1000, value * 1000 + 999]
+-- for one node. Generated numbers are 11 digits (counter plus Luhn check digit), so they cannot collide with
+-- the 10-digit numbers the old timestamp-based generator produced.
+CREATE SEQUENCE IF NOT EXISTS account_number_seq START WITH 1 INCREMENT BY 1;
\ No newline at end of file
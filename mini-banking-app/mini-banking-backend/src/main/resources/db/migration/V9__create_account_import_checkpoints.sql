@@ -0,0 +1,8 @@
+-- Progress of bulk account imports, written in the same transaction as each batch of inserted accounts
+CREATE TABLE account_import_checkpoints (
+    id             VARCHAR(255) PRIMARY KEY,
+    rows_processed BIGINT NOT NULL,
+    rows_imported  BIGINT NOT NULL,
+    rows_failed    BIGINT NOT NULL,
+    updated_at     TIMESTAMP(6) NOT NULL
+);
\ No newline at end of file
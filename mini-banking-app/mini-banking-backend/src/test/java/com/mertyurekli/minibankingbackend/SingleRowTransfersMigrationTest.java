@@ -0,0 +1,124 @@
+package com.mertyurekli.minibankingbackend;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// V6 rewrites existing history, so it is run against rows in the two-leg shape V5 left behind
+@Testcontainers(disabledWithoutDocker = true)
+class SingleRowTransfersMigrationTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    private static final LocalDateTime FIRST_LEG_AT = LocalDateTime.of(2024, 5, 1, 12, 0);
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+    private DriverManagerDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        dataSource = new DriverManagerDataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        flyway("latest").clean();
+        migrate("5");
+
+        UUID user = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, username, password, email, created_at, updated_at) "
+                + "VALUES (?, 'alice', 'x', 'alice@example.com', now(), now())", user);
+        insertAccount(alice, "1000000001", user, "45.00");
+        insertAccount(bob, "1000000002", user, "157.00");
+        insertAccount(carol, "1000000003", user, "0.00");
+
+        // A pays Bob 30 as one debit/credit pair
+        insertLeg(1, alice, bob, "-30.00", "70.00");
+        insertLeg(2, alice, bob, "30.00", "130.00");
+        // Two equal transfers whose legs interleave: the n-th debit pairs with the n-th credit
+        insertLeg(3, alice, bob, "-10.00", "60.00");
+        insertLeg(4, alice, bob, "-10.00", "50.00");
+        insertLeg(5, alice, bob, "10.00", "140.00");
+        insertLeg(6, alice, bob, "10.00", "150.00");
+        // Legs whose partner is missing
+        insertLeg(7, alice, carol, "-5.00", "45.00");
+        insertLeg(8, carol, bob, "7.00", "157.00");
+    }
+
+    @Test
+    void legsAreCollapsedIntoOneRowPerTransfer() {
+        migrate("6");
+
+        List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                "SELECT id, from_account_id, to_account_id, amount, from_balance_after, to_balance_after "
+                        + "FROM transactions ORDER BY id");
+
+        assertThat(rows).extracting(row -> ((Number) row.get("id")).longValue()).containsExactly(1L, 3L, 4L, 7L, 8L);
+        assertRow(rows.get(0), alice, bob, "30.00", "70.00", "130.00");
+        assertRow(rows.get(1), alice, bob, "10.00", "60.00", "140.00");
+        assertRow(rows.get(2), alice, bob, "10.00", "50.00", "150.00");
+        assertRow(rows.get(3), alice, carol, "5.00", "45.00", null);
+        assertRow(rows.get(4), carol, bob, "7.00", null, "157.00");
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM information_schema.columns "
+                + "WHERE table_name = 'transactions' AND column_name = 'balance_after'", Integer.class)).isZero();
+    }
+
+    @Test
+    void collapsedHistorySurvivesTheRemainingMigrations() {
+        migrate("6");
+        migrate("latest");
+
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transactions", Integer.class)).isEqualTo(5);
+        assertThat(jdbcTemplate.queryForObject("SELECT SUM(amount) FROM transactions", BigDecimal.class))
+                .isEqualByComparingTo("62.00");
+    }
+
+    private void migrate(String target) {
+        flyway(target).migrate();
+    }
+
+    private Flyway flyway(String target) {
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .cleanDisabled(false)
+                .target(target)
+                .load();
+    }
+
+    private void insertAccount(UUID id, String number, UUID user, String balance) {
+        jdbcTemplate.update("INSERT INTO accounts (id, number, name, balance, type, created_at, updated_at, user_id) "
+                + "VALUES (?, ?, ?, ?, 'SAVING', now(), now(), ?)", id, number, number, new BigDecimal(balance), user);
+    }
+
+    private void insertLeg(long id, UUID from, UUID to, String amount, String balanceAfter) {
+        jdbcTemplate.update("INSERT INTO transactions (id, from_account_id, to_account_id, amount, transaction_date, status, balance_after) "
+                        + "VALUES (?, ?, ?, ?, ?, 'SUCCESS', ?)",
+                id, from, to, new BigDecimal(amount), Timestamp.valueOf(FIRST_LEG_AT.plusMinutes(id)), new BigDecimal(balanceAfter));
+    }
+
+    private static void assertRow(Map<String, Object> row, UUID from, UUID to, String amount,
+                                  String fromBalanceAfter, String toBalanceAfter) {
+        assertThat(row.get("from_account_id")).isEqualTo(from);
+        assertThat(row.get("to_account_id")).isEqualTo(to);
+        assertThat((BigDecimal) row.get("amount")).isEqualByComparingTo(amount);
+        assertThat((BigDecimal) row.get("from_balance_after"))
+                .isEqualTo(fromBalanceAfter == null ? null : new BigDecimal(fromBalanceAfter));
+        assertThat((BigDecimal) row.get("to_balance_after"))
+                .isEqualTo(toBalanceAfter == null ? null : new BigDecimal(toBalanceAfter));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package com.mertyurekli.minibankingbackend.config;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.Duration;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Two stores on one database stand in for two nodes behind a load balancer
+@Testcontainers(disabledWithoutDocker = true)
+class StreamTicketStoreTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    private final AuthenticatedUser alice = new AuthenticatedUser(UUID.randomUUID(), "alice");
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        Flyway.configure().dataSource(dataSource).load().migrate();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        jdbcTemplate.update("DELETE FROM stream_tickets");
+    }
+
+    @Test
+    void ticketIssuedOnOneNodeIsRedeemedOnAnother() {
+        StreamTicketStore nodeA = new StreamTicketStore(jdbcTemplate, Duration.ofSeconds(30));
+        StreamTicketStore nodeB = new StreamTicketStore(jdbcTemplate, Duration.ofSeconds(30));
+
+        String ticket = nodeA.issue(alice);
+
+        assertThat(nodeB.redeem(ticket)).isEqualTo(alice);
+    }
+
+    @Test
+    void ticketCanOnlyBeRedeemedOnce() {
+        StreamTicketStore nodeA = new StreamTicketStore(jdbcTemplate, Duration.ofSeconds(30));
+        StreamTicketStore nodeB = new StreamTicketStore(jdbcTemplate, Duration.ofSeconds(30));
+        String ticket = nodeA.issue(alice);
+
+        assertThat(nodeB.redeem(ticket)).isEqualTo(alice);
+        assertThat(nodeA.redeem(ticket)).isNull();
+        assertThat(nodeB.redeem(ticket)).isNull();
+    }
+
+    @Test
+    void expiredTicketsAreRejectedAndCleanedUp() {
+        StreamTicketStore store = new StreamTicketStore(jdbcTemplate, Duration.ofSeconds(-1));
+        String ticket = store.issue(alice);
+
+        assertThat(store.redeem(ticket)).isNull();
+
+        store.deleteExpiredTickets();
+        assertThat(jdbcTemplate.queryForObject("SELECT count(*) FROM stream_tickets", Long.class)).isZero();
+    }
+
+    @Test
+    void onlyTheHashOfATicketIsStored() {
+        String ticket = new StreamTicketStore(jdbcTemplate, Duration.ofSeconds(30)).issue(alice);
+
+        assertThat(jdbcTemplate.queryForList("SELECT ticket_hash FROM stream_tickets", String.class))
+                .singleElement().isNotEqualTo(ticket);
+    }
+
+    @Test
+    void unknownTicketIsRejected() {
+        assertThat(new StreamTicketStore(jdbcTemplate, Duration.ofSeconds(30)).redeem("not-a-ticket")).isNull();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,50 @@
+package com.mertyurekli.minibankingbackend.dto;
+
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TransactionCursorTest {
+
+    @Test
+    void roundTripKeepsMicrosecondPrecision() {
+        // transaction_date is TIMESTAMP(6); a cursor that lost the micros would skip or repeat rows at the boundary
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000), 42L);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void roundTripKeepsWholeSecondsAndLargeIds() {
+        TransactionCursor cursor = new TransactionCursor(LocalDateTime.of(2026, 1, 1, 0, 0), Long.MAX_VALUE);
+
+        assertThat(TransactionCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void encodedCursorIsSafeInAQueryString() {
+        for (long id = 0; id < 200; id++) {
+            String encoded = new TransactionCursor(LocalDateTime.of(2026, 3, 14, 9, 26, 53, 999_999_000), id).encode();
+
+            assertThat(encoded).matches("[A-Za-z0-9_-]+");
+        }
+    }
+
+    @Test
+    void malformedCursorsAreBadRequests() {
+        assertThatThrownBy(() -> TransactionCursor.decode("not base64!")).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("2026-03-14T09:26:53"))).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("yesterday|42"))).isInstanceOf(BadRequestException.class);
+        assertThatThrownBy(() -> TransactionCursor.decode(encode("2026-03-14T09:26:53|x"))).isInstanceOf(BadRequestException.class);
+    }
+
+    private static String encode(String raw) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,120 @@
+package com.mertyurekli.minibankingbackend.repository;
+
+import com.mertyurekli.minibankingbackend.dto.TransactionCursor;
+import com.mertyurekli.minibankingbackend.dto.TransactionKey;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Keyset paging of the history endpoint; the schema comes from the Flyway migrations, partitions included
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class TransactionRepositoryTest {
+
+    @Container
+    @ServiceConnection
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    // Several rows share this timestamp, so the id alone decides their order
+    private static final LocalDateTime TIE = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000);
+
+    @Autowired
+    private TransactionRepository transactionRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final UUID alice = UUID.randomUUID();
+    private final UUID bob = UUID.randomUUID();
+    private final UUID carol = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        UUID user = UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO users (id, username, password, email, created_at, updated_at) "
+                + "VALUES (?, 'alice', 'x', 'alice@example.com', now(), now())", user);
+        insertAccount(alice, "10000000001", user);
+        insertAccount(bob, "10000000002", user);
+        insertAccount(carol, "10000000003", user);
+
+        insertTransfer(9, bob, alice, TIE.minusNanos(1_000));
+        insertTransfer(10, alice, bob, TIE);
+        insertTransfer(11, bob, alice, TIE);
+        insertTransfer(12, alice, carol, TIE);
+        insertTransfer(13, carol, bob, TIE);
+        insertTransfer(14, alice, bob, TIE.minusNanos(1_000));
+        insertTransfer(15, carol, alice, TIE.plusNanos(1_000));
+        // A month earlier, so the page has to continue into an older partition
+        insertTransfer(8, alice, bob, TIE.minusMonths(1));
+    }
+
+    @Test
+    void firstPageIsTheNewestRowsOfBothSides() {
+        List<TransactionKey> page = transactionRepository.findLatestKeysByAccountId(alice, 3);
+
+        assertThat(page).extracting(TransactionKey::getId).containsExactly(15L, 12L, 11L);
+        assertThat(page.get(1).getTransactionDate()).isEqualTo(TIE);
+    }
+
+    @Test
+    void cursorOnATiedTimestampResumesWithTheLowerIds() {
+        List<TransactionKey> page = transactionRepository.findKeysByAccountIdBefore(alice, TIE, 12L, 3);
+
+        assertThat(page).extracting(TransactionKey::getId).containsExactly(11L, 10L, 14L);
+    }
+
+    @Test
+    void cursorOnTheOldestRowReturnsAnEmptyPage() {
+        assertThat(transactionRepository.findKeysByAccountIdBefore(alice, TIE.minusMonths(1), 8L, 3)).isEmpty();
+    }
+
+    @Test
+    void everyPageSizeVisitsEachRowExactlyOnceInOrder() {
+        List<Long> expected = List.of(15L, 12L, 11L, 10L, 14L, 9L, 8L);
+
+        for (int pageSize = 1; pageSize <= expected.size() + 1; pageSize++) {
+            assertThat(walk(alice, pageSize)).as("page size %d", pageSize).isEqualTo(expected);
+        }
+    }
+
+    // Pages the way TransactionServiceImpl does, passing the position through an encoded cursor
+    private List<Long> walk(UUID accountId, int pageSize) {
+        List<Long> ids = new ArrayList<>();
+        List<TransactionKey> page = transactionRepository.findLatestKeysByAccountId(accountId, pageSize);
+        while (!page.isEmpty()) {
+            page.forEach(key -> ids.add(key.getId()));
+            TransactionKey last = page.get(page.size() - 1);
+            TransactionCursor cursor = TransactionCursor.decode(
+                    new TransactionCursor(last.getTransactionDate(), last.getId()).encode());
+            page = transactionRepository.findKeysByAccountIdBefore(accountId, cursor.transactionDate(), cursor.id(), pageSize);
+        }
+        return ids;
+    }
+
+    private void insertAccount(UUID id, String number, UUID user) {
+        jdbcTemplate.update("INSERT INTO accounts (id, number, name, balance, type, created_at, updated_at, user_id) "
+                + "VALUES (?, ?, ?, 100.00, 'SAVING', now(), now(), ?)", id, number, number, user);
+    }
+
+    private void insertTransfer(long id, UUID from, UUID to, LocalDateTime at) {
+        jdbcTemplate.update("INSERT INTO transactions (id, from_account_id, to_account_id, amount, transaction_date, status) "
+                + "VALUES (?, ?, ?, ?, ?, 'SUCCESS')", id, from, to, BigDecimal.ONE, Timestamp.valueOf(at));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,118 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AccountNumberGeneratorTest {
+
+    private static final String NEXT_BLOCK = "SELECT nextval('account_number_seq')";
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    @Test
+    void formatAppendsTheLuhnCheckDigit() {
+        // The textbook Luhn example: 7992739871 has check digit 3
+        assertThat(AccountNumberGenerator.format(7_992_739_871L)).isEqualTo("79927398713");
+        assertThat(AccountNumberGenerator.format(0)).isEqualTo("00000000000");
+        assertThat(AccountNumberGenerator.format(1000)).isEqualTo("00000010009");
+    }
+
+    @Test
+    void formatRejectsCountersBeyondTenDigits() {
+        assertThat(AccountNumberGenerator.format(9_999_999_999L)).hasSize(11);
+        assertThatThrownBy(() -> AccountNumberGenerator.format(10_000_000_000L))
+                .isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void everyGeneratedNumberPassesTheLuhnCheck() {
+        when(jdbcTemplate.queryForObject(NEXT_BLOCK, Long.class)).thenReturn(123_456L);
+        AccountNumberGenerator generator = new AccountNumberGenerator(jdbcTemplate);
+
+        for (int i = 0; i < AccountNumberGenerator.BLOCK_SIZE; i++) {
+            String number = generator.nextNumber();
+            assertThat(number).hasSize(11).containsOnlyDigits();
+            assertThat(isLuhnValid(number)).as(number).isTrue();
+        }
+    }
+
+    @Test
+    void numbersInsideABlockCostNoSequenceCall() {
+        when(jdbcTemplate.queryForObject(NEXT_BLOCK, Long.class)).thenReturn(1L, 7L);
+        AccountNumberGenerator generator = new AccountNumberGenerator(jdbcTemplate);
+
+        assertThat(generator.nextNumber()).isEqualTo(AccountNumberGenerator.format(1000));
+        for (int i = 1; i < AccountNumberGenerator.BLOCK_SIZE - 1; i++) {
+            generator.nextNumber();
+        }
+        assertThat(generator.nextNumber()).isEqualTo(AccountNumberGenerator.format(1999));
+        verify(jdbcTemplate, times(1)).queryForObject(NEXT_BLOCK, Long.class);
+
+        // The next block is wherever the sequence is now, not necessarily adjacent: other nodes took the ones between
+        assertThat(generator.nextNumber()).isEqualTo(AccountNumberGenerator.format(7000));
+        verify(jdbcTemplate, times(2)).queryForObject(NEXT_BLOCK, Long.class);
+    }
+
+    @Test
+    void concurrentCallersNeverShareANumberOrWasteABlock() throws Exception {
+        AtomicLong sequence = new AtomicLong();
+        when(jdbcTemplate.queryForObject(NEXT_BLOCK, Long.class)).thenAnswer(invocation -> sequence.incrementAndGet());
+        AccountNumberGenerator generator = new AccountNumberGenerator(jdbcTemplate);
+        int threads = 8;
+        int perThread = 2500;
+
+        Set<String> numbers = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        numbers.add(generator.nextNumber());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(numbers).hasSize(threads * perThread);
+        assertThat(sequence.get()).isEqualTo(threads * perThread / AccountNumberGenerator.BLOCK_SIZE);
+    }
+
+    private static boolean isLuhnValid(String number) {
+        int sum = 0;
+        boolean doubled = false;
+        for (int i = number.length() - 1; i >= 0; i--) {
+            int digit = number.charAt(i) - '0';
+            if (doubled) {
+                digit *= 2;
+                if (digit > 9) {
+                    digit -= 9;
+                }
+            }
+            sum += digit;
+            doubled = !doubled;
+        }
+        return sum % 10 == 0;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,261 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.entity.IdempotencyRecord;
+import com.mertyurekli.minibankingbackend.exception.BadRequestException;
+import com.mertyurekli.minibankingbackend.exception.ConflictException;
+import com.mertyurekli.minibankingbackend.repository.IdempotencyRecordRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class IdempotencyServiceImplTest {
+
+    private final IdempotencyRecordRepository repository = mock(IdempotencyRecordRepository.class);
+    private final AuthenticatedUserContext userContext = mock(AuthenticatedUserContext.class);
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicInteger calls = new AtomicInteger();
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        when(userContext.getCurrentUserId()).thenReturn(userId);
+    }
+
+    @Test
+    void repeatedKeyReplaysTheFirstResponseWithoutRunningAgain() {
+        IdempotencyServiceImpl service = service(false, Duration.ofSeconds(1));
+
+        ResponseEntity<?> first = service.execute("key-1", transfer("10.00"), this::created);
+        ResponseEntity<?> second = service.execute("key-1", transfer("10.00"), this::created);
+
+        assertThat(calls).hasValue(1);
+        assertThat(second).isSameAs(first);
+    }
+
+    @Test
+    void keyReusedForADifferentRequestIsRejected() {
+        IdempotencyServiceImpl service = service(false, Duration.ofSeconds(1));
+        service.execute("key-1", transfer("10.00"), this::created);
+
+        assertThatThrownBy(() -> service.execute("key-1", transfer("99.00"), this::created))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void keysAreScopedPerUser() {
+        IdempotencyServiceImpl service = service(false, Duration.ofSeconds(1));
+        service.execute("key-1", transfer("10.00"), this::created);
+
+        when(userContext.getCurrentUserId()).thenReturn(UUID.randomUUID());
+        service.execute("key-1", transfer("99.00"), this::created);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void missingKeyAlwaysRunsTheAction() {
+        IdempotencyServiceImpl service = service(false, Duration.ofSeconds(1));
+
+        service.execute(null, transfer("10.00"), this::created);
+        service.execute(" ", transfer("10.00"), this::created);
+
+        assertThat(calls).hasValue(2);
+    }
+
+    @Test
+    void failedActionCanBeRetriedUnderTheSameKey() {
+        IdempotencyServiceImpl service = service(false, Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> service.execute("key-1", transfer("10.00"), () -> {
+            throw new IllegalStateException("boom");
+        })).hasMessage("boom");
+        service.execute("key-1", transfer("10.00"), this::created);
+
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void concurrentDuplicateTimesOutWithConflictWhileTheFirstIsRunning() throws Exception {
+        IdempotencyServiceImpl service = service(false, Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                service.execute("key-1", transfer("10.00"), () -> {
+                    started.countDown();
+                    await(release);
+                    return created();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+        assertThatThrownBy(() -> service.execute("key-1", transfer("10.00"), this::created))
+                .isInstanceOf(ConflictException.class);
+
+        release.countDown();
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void responseIsPersistedWithItsHeaders() throws Exception {
+        IdempotencyServiceImpl service = service(true, Duration.ofSeconds(1));
+        when(repository.findByIdAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.empty());
+
+        service.execute("key-1", transfer("10.00"), this::created);
+
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(saved.capture());
+        assertThat(saved.getValue().getId()).isEqualTo(userId + ":key-1");
+        assertThat(saved.getValue().getResponseStatus()).isEqualTo(201);
+        assertThat(saved.getValue().getContentType()).isEqualTo(MediaType.APPLICATION_JSON_VALUE);
+        assertThat(objectMapper.readTree(saved.getValue().getResponseHeaders()).get("Location").get(0).asText())
+                .isEqualTo("/api/transactions/7");
+    }
+
+    @Test
+    void persistedResponseIsReplayedWithItsHeadersAfterARestart() {
+        IdempotencyServiceImpl first = service(true, Duration.ofSeconds(1));
+        when(repository.findByIdAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.empty());
+        first.execute("key-1", transfer("10.00"), this::created);
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(saved.capture());
+
+        // A new instance has an empty in-memory map, like another node or the same one after a restart
+        IdempotencyServiceImpl restarted = service(true, Duration.ofSeconds(1));
+        when(repository.findByIdAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.of(saved.getValue()));
+        ResponseEntity<?> replayed = restarted.execute("key-1", transfer("10.00"), this::created);
+
+        assertThat(calls).hasValue(1);
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getHeaders().getLocation()).isEqualTo(URI.create("/api/transactions/7"));
+        assertThat(replayed.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_JSON);
+        assertThat(replayed.getBody()).isEqualTo("{\"id\":7}");
+    }
+
+    @Test
+    void persistedKeyReusedForADifferentRequestIsRejected() {
+        IdempotencyServiceImpl service = service(true, Duration.ofSeconds(1));
+        when(repository.findByIdAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.of(
+                new IdempotencyRecord(userId + ":key-1", "another-hash", 201, MediaType.APPLICATION_JSON_VALUE,
+                        "{\"id\":7}", null, LocalDateTime.now())));
+
+        assertThatThrownBy(() -> service.execute("key-1", transfer("10.00"), this::created))
+                .isInstanceOf(BadRequestException.class);
+        assertThat(calls).hasValue(0);
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void recordStoredBeforeHeadersWereKeptIsStillReplayed() {
+        IdempotencyServiceImpl service = service(true, Duration.ofSeconds(1));
+        when(repository.findByIdAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.empty());
+        service.execute("key-1", transfer("10.00"), this::created);
+        ArgumentCaptor<IdempotencyRecord> saved = ArgumentCaptor.forClass(IdempotencyRecord.class);
+        verify(repository).save(saved.capture());
+        IdempotencyRecord legacy = saved.getValue();
+        legacy.setResponseHeaders(null);
+
+        IdempotencyServiceImpl restarted = service(true, Duration.ofSeconds(1));
+        when(repository.findByIdAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.of(legacy));
+        ResponseEntity<?> replayed = restarted.execute("key-1", transfer("10.00"), this::created);
+
+        assertThat(replayed.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(replayed.getHeaders().getLocation()).isNull();
+    }
+
+    @Test
+    void failureToStoreTheResponseDoesNotReleaseTheKey() {
+        IdempotencyServiceImpl service = service(true, Duration.ofSeconds(1));
+        when(repository.findByIdAndCreatedAtAfter(anyString(), any())).thenReturn(Optional.empty());
+        when(repository.save(any())).thenThrow(new QueryTimeoutException("statement timeout"));
+
+        ResponseEntity<?> first = service.execute("key-1", transfer("10.00"), this::created);
+        ResponseEntity<?> retry = service.execute("key-1", transfer("10.00"), this::created);
+
+        // The transfer committed, so the client must see it succeed and its retry must not move the money again
+        assertThat(first.getStatusCode()).isEqualTo(HttpStatus.CREATED);
+        assertThat(retry).isSameAs(first);
+        assertThat(calls).hasValue(1);
+    }
+
+    @Test
+    void runningRequestIsNotEvictedByCompletedOnes() throws Exception {
+        IdempotencyServiceImpl service = new IdempotencyServiceImpl(repository, userContext, objectMapper,
+                Duration.ofHours(24), 1, Duration.ofMillis(50), false);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<ResponseEntity<?>> first = CompletableFuture.supplyAsync(() ->
+                service.execute("key-1", transfer("10.00"), () -> {
+                    started.countDown();
+                    await(release);
+                    return created();
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        for (int i = 2; i <= 20; i++) {
+            service.execute("key-" + i, transfer("10.00"), this::created);
+        }
+
+        assertThatThrownBy(() -> service.execute("key-1", transfer("10.00"), this::created))
+                .isInstanceOf(ConflictException.class);
+
+        release.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertThat(calls).hasValue(20);
+    }
+
+    @Test
+    void overlongKeyIsRejected() {
+        IdempotencyServiceImpl service = service(false, Duration.ofSeconds(1));
+
+        assertThatThrownBy(() -> service.execute("k".repeat(201), transfer("10.00"), this::created))
+                .isInstanceOf(BadRequestException.class);
+    }
+
+    private IdempotencyServiceImpl service(boolean persistenceEnabled, Duration waitTimeout) {
+        return new IdempotencyServiceImpl(repository, userContext, objectMapper, Duration.ofHours(24), 1000,
+                waitTimeout, persistenceEnabled);
+    }
+
+    private ResponseEntity<?> created() {
+        calls.incrementAndGet();
+        return ResponseEntity.created(URI.create("/api/transactions/7")).body(Map.of("id", 7));
+    }
+
+    private static Map<String, String> transfer(String amount) {
+        return Map.of("from", "10000000001", "to", "10000000019", "amount", amount);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,145 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.entity.LedgerCheckpoint;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.LedgerCheckpointRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class InMemoryLedgerEngineTest {
+
+    private static final UUID ALICE = UUID.randomUUID();
+    private static final UUID BOB = UUID.randomUUID();
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 14, 9, 0);
+
+    @TempDir
+    Path dir;
+
+    private final LedgerCheckpointRepository checkpointRepository = mock(LedgerCheckpointRepository.class);
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+    private Path walPath;
+    private InMemoryLedgerEngine engine;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        walPath = dir.resolve("ledger.wal");
+        // Entry 1 was committed before the crash, 2 and 3 were acknowledged but never flushed
+        Files.writeString(walPath, entry(1, "10.00", "90.00", "110.00").toLogLine()
+                + entry(2, "20.00", "70.00", "130.00").toLogLine()
+                + entry(3, "5.00", "65.00", "135.00").toLogLine(), StandardCharsets.UTF_8);
+        when(checkpointRepository.findById("in-memory-ledger"))
+                .thenReturn(Optional.of(new LedgerCheckpoint("in-memory-ledger", 1L)));
+        when(jdbcTemplate.queryForList(startsWith("SELECT nextval"), eq(Long.class), anyInt()))
+                .thenReturn(List.of(50L));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (engine != null) {
+            engine.stop();
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void startReplaysUnflushedEntriesInSequenceOrderBeforeServing() throws IOException {
+        engine = engine(500);
+
+        engine.start();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO transactions"), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[3]).containsExactly(new BigDecimal("20.00"), new BigDecimal("5.00"));
+        assertThat(rows.getValue()).extracting(row -> row[0]).containsExactly(1L, 2L);
+
+        // Only the last balance of each account in the batch is written
+        verify(jdbcTemplate).batchUpdate(startsWith("UPDATE accounts"), rows.capture());
+        assertThat(rows.getValue()).extracting(row -> row[0], row -> row[2]).containsExactly(
+                tuple(new BigDecimal("65.00"), ALICE),
+                tuple(new BigDecimal("135.00"), BOB));
+
+        ArgumentCaptor<LedgerCheckpoint> checkpoint = ArgumentCaptor.forClass(LedgerCheckpoint.class);
+        verify(checkpointRepository).save(checkpoint.capture());
+        assertThat(checkpoint.getValue().getLastSequence()).isEqualTo(3L);
+        verify(eventPublisher, times(2)).publishEvent(any(Object.class));
+        // The replayed log is gone once its entries are in the database; only the empty active segment is left
+        assertThat(Files.exists(walPath)).isFalse();
+        assertThat(Files.size(dir.resolve("ledger.wal.4"))).isZero();
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void replayCheckpointsEachBatchInOrder() throws IOException {
+        engine = engine(1);
+
+        engine.start();
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith("INSERT INTO transactions"), rows.capture());
+        assertThat(rows.getAllValues()).extracting(batch -> batch.get(0)[3])
+                .containsExactly(new BigDecimal("20.00"), new BigDecimal("5.00"));
+
+        ArgumentCaptor<LedgerCheckpoint> checkpoints = ArgumentCaptor.forClass(LedgerCheckpoint.class);
+        verify(checkpointRepository, times(2)).save(checkpoints.capture());
+        assertThat(checkpoints.getAllValues()).extracting(LedgerCheckpoint::getLastSequence).containsExactly(2L, 3L);
+    }
+
+    @Test
+    void failedReplayKeepsEntriesInTheLog() throws IOException {
+        when(jdbcTemplate.batchUpdate(startsWith("INSERT INTO transactions"), anyList()))
+                .thenThrow(new IllegalStateException("database unavailable"));
+        InMemoryLedgerEngine failing = engine(500);
+
+        assertThatThrownBy(failing::start).hasMessage("database unavailable");
+
+        // The next start must still find both entries
+        verify(checkpointRepository, never()).save(any());
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(walPath, false, 1)) {
+            assertThat(wal.peek(10)).extracting(LedgerEntry::sequence).containsExactly(2L, 3L);
+        }
+    }
+
+    private InMemoryLedgerEngine engine(int flushBatchSize) {
+        return new InMemoryLedgerEngine(mock(AccountRepository.class), checkpointRepository, jdbcTemplate,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher,
+                16, walPath.toString(), false, 60_000, flushBatchSize, Duration.ofMinutes(10));
+    }
+
+    private static LedgerEntry entry(long sequence, String amount, String aliceBalance, String bobBalance) {
+        return new LedgerEntry(sequence, ALICE, BOB, new BigDecimal(amount), new BigDecimal(aliceBalance),
+                new BigDecimal(bobBalance), NOW.plusSeconds(sequence));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,204 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LedgerWriteAheadLogTest {
+
+    private static final UUID FROM = UUID.randomUUID();
+    private static final UUID TO = UUID.randomUUID();
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_000_000);
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void appendedEntriesArePeekedInSequenceOrder() throws IOException {
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(dir.resolve("ledger.wal"), false, 0)) {
+            append(wal, "1.00");
+            append(wal, "2.00");
+            append(wal, "3.00");
+
+            assertThat(wal.peek(2)).extracting(LedgerEntry::sequence).containsExactly(1L, 2L);
+            assertThat(wal.peek(10)).extracting(LedgerEntry::sequence).containsExactly(1L, 2L, 3L);
+            assertThat(wal.unflushedCount()).isEqualTo(3);
+            assertThat(wal.flushedSequence()).isZero();
+        }
+    }
+
+    @Test
+    void markFlushedDropsOnlyTheFlushedPrefix() throws IOException {
+        Path path = dir.resolve("ledger.wal");
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, false, 0)) {
+            append(wal, "1.00");
+            append(wal, "2.00");
+            append(wal, "3.00");
+
+            wal.markFlushed(2);
+
+            assertThat(wal.peek(10)).extracting(LedgerEntry::sequence).containsExactly(3L);
+            assertThat(wal.flushedSequence()).isEqualTo(2);
+            // Entry 3 is not in the database yet, so its segment must stay; new entries go to a fresh one
+            assertThat(segments()).containsExactly("ledger.wal.1", "ledger.wal.4");
+        }
+    }
+
+    @Test
+    void fullyFlushedLogIsRemovedAndKeepsNumbering() throws IOException {
+        Path path = dir.resolve("ledger.wal");
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, false, 0)) {
+            append(wal, "1.00");
+            append(wal, "2.00");
+
+            wal.markFlushed(2);
+
+            assertThat(segments()).containsExactly("ledger.wal.3");
+            assertThat(Files.size(dir.resolve("ledger.wal.3"))).isZero();
+            assertThat(wal.flushedSequence()).isEqualTo(2);
+            assertThat(append(wal, "3.00").sequence()).isEqualTo(3);
+        }
+    }
+
+    @Test
+    void logStaysSmallWhenTheQueueIsNeverEmptyAtACheckpoint() throws IOException {
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(dir.resolve("ledger.wal"), false, 0)) {
+            for (int i = 0; i < 1000; i++) {
+                LedgerEntry flushed = append(wal, "1.00");
+                append(wal, "2.00");
+                wal.markFlushed(flushed.sequence());
+
+                assertThat(wal.unflushedCount()).isEqualTo(1);
+                assertThat(segments()).hasSizeLessThanOrEqualTo(2);
+            }
+        }
+    }
+
+    @Test
+    void reopeningAfterEverythingWasFlushedRemovesOldSegments() throws IOException {
+        Path path = dir.resolve("ledger.wal");
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, false, 0)) {
+            append(wal, "1.00");
+            append(wal, "2.00");
+        }
+
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, false, 2)) {
+            assertThat(wal.unflushedCount()).isZero();
+            assertThat(segments()).containsExactly("ledger.wal.3");
+        }
+    }
+
+    @Test
+    void singleFileLogFromBeforeSegmentsIsReplayedFirstAndThenRemoved() throws IOException {
+        Path path = dir.resolve("ledger.wal");
+        Files.writeString(path, entry(1).toLogLine() + entry(2).toLogLine(), StandardCharsets.UTF_8);
+
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, false, 0)) {
+            assertThat(wal.peek(10)).extracting(LedgerEntry::sequence).containsExactly(1L, 2L);
+            assertThat(append(wal, "3.00").sequence()).isEqualTo(3);
+
+            wal.markFlushed(3);
+
+            assertThat(Files.exists(path)).isFalse();
+            assertThat(segments()).containsExactly("ledger.wal.4");
+        }
+    }
+
+    @Test
+    void failedSyncStopsTheLogWithoutFailingTheWaitingTransfer() throws IOException {
+        LedgerWriteAheadLog wal = new LedgerWriteAheadLog(dir.resolve("ledger.wal"), true, 0);
+        LedgerEntry entry = append(wal, "1.00");
+        // force() on a closed channel fails the way a disk error would
+        wal.close();
+
+        wal.awaitDurable(entry.sequence());
+
+        assertThat(wal.isFailed()).isTrue();
+        assertThatThrownBy(() -> append(wal, "2.00")).isInstanceOf(IllegalStateException.class);
+        // The entry is applied in memory and must still be flushed
+        assertThat(wal.peek(10)).extracting(LedgerEntry::sequence).containsExactly(1L);
+    }
+
+    @Test
+    void recoveryReplaysOnlyEntriesAfterTheCheckpoint() throws IOException {
+        Path path = dir.resolve("ledger.wal");
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, true, 0)) {
+            append(wal, "1.00");
+            append(wal, "2.00");
+            LedgerEntry last = append(wal, "3.00");
+            wal.awaitDurable(last.sequence());
+        }
+
+        // The process died after entry 1 was committed but before the next checkpoint removed its segment
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, true, 1)) {
+            List<LedgerEntry> replayed = wal.peek(10);
+
+            assertThat(replayed).extracting(LedgerEntry::sequence).containsExactly(2L, 3L);
+            assertThat(replayed.get(1).amount()).isEqualByComparingTo("3.00");
+            assertThat(replayed.get(1).transactionDate()).isEqualTo(NOW);
+            assertThat(wal.flushedSequence()).isEqualTo(1);
+            assertThat(append(wal, "4.00").sequence()).isEqualTo(4);
+        }
+    }
+
+    @Test
+    void recoveryContinuesFromTheCheckpointWhenTheLogIsEmpty() throws IOException {
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(dir.resolve("ledger.wal"), false, 41)) {
+            assertThat(wal.unflushedCount()).isZero();
+            assertThat(wal.flushedSequence()).isEqualTo(41);
+            assertThat(append(wal, "1.00").sequence()).isEqualTo(42);
+        }
+    }
+
+    @Test
+    void recoveryIgnoresATornLastLine() throws IOException {
+        Path path = dir.resolve("ledger.wal");
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, false, 0)) {
+            append(wal, "1.00");
+            append(wal, "2.00");
+        }
+        Files.writeString(dir.resolve("ledger.wal.1"), "3;" + FROM + ";" + TO + ";3.0", StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+
+        try (LedgerWriteAheadLog wal = new LedgerWriteAheadLog(path, false, 0)) {
+            assertThat(wal.peek(10)).extracting(LedgerEntry::sequence).containsExactly(1L, 2L);
+        }
+    }
+
+    @Test
+    void recoveryRejectsACorruptLineBeforeTheEnd() throws IOException {
+        Path path = dir.resolve("ledger.wal");
+        Files.writeString(path, entry(1).toLogLine() + "garbage\n" + entry(3).toLogLine(), StandardCharsets.UTF_8);
+
+        assertThatThrownBy(() -> new LedgerWriteAheadLog(path, false, 0))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("line 2");
+    }
+
+    private List<String> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static LedgerEntry entry(long sequence) {
+        return new LedgerEntry(sequence, FROM, TO, BigDecimal.ONE, BigDecimal.TEN, BigDecimal.TEN, NOW);
+    }
+
+    private static LedgerEntry append(LedgerWriteAheadLog wal, String amount) {
+        BigDecimal value = new BigDecimal(amount);
+        return wal.append(FROM, TO, value, BigDecimal.valueOf(100).subtract(value), BigDecimal.valueOf(100).add(value), NOW);
+    }
+}
\ No newline at end of file
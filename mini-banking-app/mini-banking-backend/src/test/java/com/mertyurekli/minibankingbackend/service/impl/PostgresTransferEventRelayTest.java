@@ -0,0 +1,109 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mertyurekli.minibankingbackend.event.TransferEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.after;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.mockingDetails;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+// Two relays on one database stand in for two nodes; each delivers to its own mocked notification service
+@Testcontainers(disabledWithoutDocker = true)
+class PostgresTransferEventRelayTest {
+
+    @Container
+    static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:17");
+
+    private static final UUID FROM = UUID.randomUUID();
+    private static final UUID TO = UUID.randomUUID();
+
+    private final SseNotificationService streamsOnA = mock(SseNotificationService.class);
+    private final SseNotificationService streamsOnB = mock(SseNotificationService.class);
+    private PostgresTransferEventRelay nodeA;
+    private PostgresTransferEventRelay nodeB;
+
+    @BeforeEach
+    void setUp() throws InterruptedException {
+        nodeA = relay(streamsOnA);
+        nodeB = relay(streamsOnB);
+        nodeA.start();
+        nodeB.start();
+        // Notifications sent before LISTEN are lost, so wait until B hears A
+        for (int i = 0; i < 100 && mockingDetails(streamsOnB).getInvocations().isEmpty(); i++) {
+            nodeA.publish(event(0L, "0.00"));
+            Thread.sleep(100);
+        }
+        Thread.sleep(200);
+        clearInvocations(streamsOnA, streamsOnB);
+    }
+
+    @AfterEach
+    void tearDown() {
+        nodeA.stop();
+        nodeB.stop();
+    }
+
+    @Test
+    void eventCommittedOnOneNodeReachesStreamsOnTheOther() {
+        TransferEvent event = event(1L, "10.00");
+
+        nodeA.publish(event);
+
+        verify(streamsOnB, timeout(5_000)).deliver(event);
+    }
+
+    @Test
+    void nodeSkipsItsOwnEventsComingBackOverTheChannel() {
+        nodeA.publish(event(1L, "10.00"));
+
+        verify(streamsOnB, timeout(5_000)).deliver(any());
+        verify(streamsOnA, after(500).never()).deliver(any());
+    }
+
+    @Test
+    void eventsArriveInTheOrderTheyWerePublished() {
+        for (long id = 1; id <= 50; id++) {
+            nodeA.publish(event(id, id + ".00"));
+        }
+
+        verify(streamsOnB, timeout(5_000).times(50)).deliver(any());
+        InOrder inOrder = inOrder(streamsOnB);
+        for (long id = 1; id <= 50; id++) {
+            inOrder.verify(streamsOnB).deliver(event(id, id + ".00"));
+        }
+    }
+
+    private static PostgresTransferEventRelay relay(SseNotificationService notificationService) {
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(
+                postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        return new PostgresTransferEventRelay(dataSource, new JdbcTemplate(dataSource),
+                new ObjectMapper().findAndRegisterModules(), notificationService, new SimpleMeterRegistry(),
+                100, Duration.ofMillis(50), Duration.ofMillis(100));
+    }
+
+    private static TransferEvent event(long transactionId, String amount) {
+        return new TransferEvent(transactionId, FROM, TO, new BigDecimal(amount),
+                LocalDateTime.of(2026, 3, 14, 9, 26, 53, 589_793_000), "SUCCESS",
+                new BigDecimal("90.00"), new BigDecimal("110.00"), null);
+    }
+}
\ No newline at end of file
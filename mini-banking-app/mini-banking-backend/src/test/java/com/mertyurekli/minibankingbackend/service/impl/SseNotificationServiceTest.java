@@ -0,0 +1,47 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.event.TransferEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class SseNotificationServiceTest {
+
+    private final PostgresTransferEventRelay relay = mock(PostgresTransferEventRelay.class);
+    private final SseNotificationService service = new SseNotificationService(mock(AccountMetadataCache.class),
+            mock(AuthenticatedUserContext.class), provider(relay), new SimpleMeterRegistry(),
+            Duration.ofMinutes(30), 5, 2, 100);
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    @Test
+    void transferIsRelayedEvenWithoutLocalStreams() {
+        // The owner of the account may be connected to another node
+        TransferEvent event = new TransferEvent(1L, UUID.randomUUID(), UUID.randomUUID(), BigDecimal.TEN,
+                LocalDateTime.of(2026, 3, 14, 9, 26), "SUCCESS", BigDecimal.ONE, BigDecimal.TEN, null);
+
+        service.onTransfer(event);
+
+        verify(relay).publish(event);
+    }
+
+    private static ObjectProvider<PostgresTransferEventRelay> provider(PostgresTransferEventRelay relay) {
+        StaticListableBeanFactory beanFactory = new StaticListableBeanFactory();
+        beanFactory.addBean("relay", relay);
+        return beanFactory.getBeanProvider(PostgresTransferEventRelay.class);
+    }
+}
\ No newline at end of file
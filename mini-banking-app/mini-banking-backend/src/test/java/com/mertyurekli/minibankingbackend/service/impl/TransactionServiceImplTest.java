@@ -0,0 +1,117 @@
+package com.mertyurekli.minibankingbackend.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.mertyurekli.minibankingbackend.config.AuthenticatedUserContext;
+import com.mertyurekli.minibankingbackend.config.ReadYourWritesTracker;
+import com.mertyurekli.minibankingbackend.dto.AccountMetadata;
+import com.mertyurekli.minibankingbackend.entity.AccountType;
+import com.mertyurekli.minibankingbackend.exception.ResourceNotFoundException;
+import com.mertyurekli.minibankingbackend.repository.AccountRepository;
+import com.mertyurekli.minibankingbackend.repository.TransactionRepository;
+import com.mertyurekli.minibankingbackend.service.LedgerEngine;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class TransactionServiceImplTest {
+
+    private final TransactionRepository transactionRepository = mock(TransactionRepository.class);
+    private final AuthenticatedUserContext userContext = mock(AuthenticatedUserContext.class);
+    private final AccountMetadataCache accountMetadataCache = mock(AccountMetadataCache.class);
+    private final TransactionArchiver transactionArchiver = mock(TransactionArchiver.class);
+    private final UUID userId = UUID.randomUUID();
+    private final UUID ownAccount = UUID.randomUUID();
+    private final UUID foreignAccount = UUID.randomUUID();
+    private TransactionServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        when(userContext.getCurrentUserId()).thenReturn(userId);
+        when(accountMetadataCache.findById(ownAccount)).thenReturn(Optional.of(account(ownAccount, userId)));
+        when(accountMetadataCache.findById(foreignAccount)).thenReturn(Optional.of(account(foreignAccount, UUID.randomUUID())));
+        service = new TransactionServiceImpl(transactionRepository, mock(LedgerEngine.class), new ObjectMapper(),
+                mock(TransferMetrics.class), mock(AccountRepository.class), userContext,
+                mock(ApplicationEventPublisher.class), accountMetadataCache, mock(ReadYourWritesTracker.class),
+                transactionArchiver);
+    }
+
+    @Test
+    void historyOfOwnAccountIsRead() {
+        when(transactionRepository.findLatestKeysByAccountId(any(), anyInt())).thenReturn(List.of());
+
+        assertThat(service.getTransactionHistory(ownAccount, null, null).getTransactions()).isEmpty();
+    }
+
+    @Test
+    void historyOfAnotherUsersAccountIsNotFound() {
+        assertThatThrownBy(() -> service.getTransactionHistory(foreignAccount, null, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void historyOfAnUnknownAccountIsNotFound() {
+        assertThatThrownBy(() -> service.getTransactionHistory(UUID.randomUUID(), null, null))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(transactionRepository);
+    }
+
+    @Test
+    void exportOfOwnAccountStreamsItsHistory() throws Exception {
+        when(transactionRepository.streamByAccountId(ownAccount)).thenReturn(Stream.empty());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        service.exportTransactionHistory(ownAccount, "csv", out);
+
+        verify(transactionRepository).streamByAccountId(ownAccount);
+        assertThat(out.toString()).startsWith("id,fromAccountId");
+    }
+
+    @Test
+    void exportOfAnotherUsersAccountWritesNothing() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        assertThatThrownBy(() -> service.exportTransactionHistory(foreignAccount, "ndjson", out))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(transactionRepository);
+        assertThat(out.size()).isZero();
+    }
+
+    @Test
+    void archivedHistoryOfOwnAccountIsRead() {
+        YearMonth month = YearMonth.of(2025, 1);
+        when(transactionArchiver.streamArchived(ownAccount, month, month)).thenReturn(Stream.empty());
+
+        assertThat(service.streamArchivedTransactionHistory(ownAccount, month, month)).isEmpty();
+    }
+
+    @Test
+    void archivedHistoryOfAnotherUsersAccountOpensNoArchive() {
+        YearMonth month = YearMonth.of(2025, 1);
+
+        assertThatThrownBy(() -> service.streamArchivedTransactionHistory(foreignAccount, month, month))
+                .isInstanceOf(ResourceNotFoundException.class);
+        verifyNoInteractions(transactionArchiver);
+    }
+
+    private static AccountMetadata account(UUID id, UUID owner) {
+        return new AccountMetadata(id, "10000000001", "Main", AccountType.SAVING, owner, LocalDateTime.of(2025, 1, 1, 0, 0));
+    }
+}
\ No newline at end of file
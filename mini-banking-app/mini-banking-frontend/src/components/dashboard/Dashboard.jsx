@@ -2,12 +2,16 @@ import React, { useState, useEffect } from 'react';
 import { Link } from 'react-router-dom';
 import { useAuth } from '../../contexts/AuthContext';
 import { accountService } from '../../services/accountService';
+import { notificationService } from '../../services/notificationService';
 import EditAccountForm from './EditAccountForm';
 import './Dashboard.css';
 
+const RECENT_TRANSACTIONS = 3;
+
 const Dashboard = () => {
   const { user, isAuthenticated, loading: authLoading } = useAuth();
   const [accounts, setAccounts] = useState([]);
+  const [recentTransactions, setRecentTransactions] = useState({});
   const [loading, setLoading] = useState(true);
   const [error, setError] = useState('');
   const [searchTerm, setSearchTerm] = useState('');
@@ -23,11 +27,38 @@ const Dashboard = () => {
     }
   }, [isAuthenticated, authLoading]);
 
+  // Balances are pushed by the server after each transfer instead of re-fetching the account list
+  useEffect(() => {
+    if (!isAuthenticated || authLoading) {
+      return undefined;
+    }
+    return notificationService.subscribe({
+      onTransaction: (transaction) => {
+        setRecentTransactions(prev => {
+          const next = { ...prev };
+          [transaction.fromAccountId, transaction.toAccountId].forEach(accountId => {
+            if (next[accountId]) {
+              next[accountId] = [transaction, ...next[accountId].filter(existing => existing.id !== transaction.id)]
+                .slice(0, RECENT_TRANSACTIONS);
+            }
+          });
+          return next;
+        });
+      },
+      onBalance: ({ accountId, balance }) => {
+        setAccounts(prev => prev.map(account =>
+          account.id === accountId ? { ...account, balance } : account
+        ));
+      }
+    });
+  }, [isAuthenticated, authLoading]);
+
   const fetchAccounts = async () => {
     try {
       setLoading(true);
-      const data = await accountService.getAccounts();
-      setAccounts(data);
+      const data = await accountService.getDashboard(RECENT_TRANSACTIONS);
+      setAccounts(data.accounts);
+      setRecentTransactions(data.recentTransactions);
     } catch (err) {
       setError('Failed to load accounts. Please try again.');
     } finally {
@@ -201,6 +232,22 @@ const Dashboard = () => {
                   <p className="account-number">#{account.number}</p>
                   <p className="account-balance">${account.balance.toFixed(2)}</p>
                 </div>
+                {recentTransactions[account.id]?.length > 0 && (
+                  <ul className="mb-4 text-sm text-gray-600">
+                    {recentTransactions[account.id].map(transaction => (
+                      <li key={transaction.id} className="flex justify-between">
+                        <span>
+                          {transaction.fromAccountId === account.id
+                            ? `To #${transaction.toAccountNumber}`
+                            : `From #${transaction.fromAccountNumber}`}
+                        </span>
+                        <span>
+                          {transaction.fromAccountId === account.id ? '-' : '+'}${Number(transaction.amount).toFixed(2)}
+                        </span>
+                      </li>
+                    ))}
+                  </ul>
+                )}
                 <div className="account-actions">
                   <div className="flex gap-2 mb-3">
                     <button
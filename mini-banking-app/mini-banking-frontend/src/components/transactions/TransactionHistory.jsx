@@ -1,6 +1,7 @@
 import React, { useState, useEffect } from 'react';
 import { useParams, Link } from 'react-router-dom';
 import { accountService } from '../../services/accountService';
+import { notificationService } from '../../services/notificationService';
 import './Transactions.css';
 
 const TransactionHistory = () => {
@@ -16,6 +17,26 @@ const TransactionHistory = () => {
     }
   }, [accountId]);
 
+  // New and settled transfers for this account arrive as server-sent events
+  useEffect(() => {
+    if (!accountId) {
+      return undefined;
+    }
+    return notificationService.subscribe({
+      onTransaction: (transaction) => {
+        if (transaction.fromAccountId !== accountId && transaction.toAccountId !== accountId) {
+          return;
+        }
+        setTransactions(prev => [transaction, ...prev.filter(existing => existing.id !== transaction.id)]);
+      },
+      onBalance: ({ accountId: updatedId, balance }) => {
+        if (updatedId === accountId) {
+          setAccount(prev => (prev ? { ...prev, balance } : prev));
+        }
+      }
+    });
+  }, [accountId]);
+
   const fetchAccountAndTransactions = async () => {
     try {
       setLoading(true);
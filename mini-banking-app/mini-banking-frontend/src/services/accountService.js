@@ -20,10 +20,23 @@ api.interceptors.request.use((config) => {
 export const accountService = {
   async getAccounts(params = {}) {
     // Backend doesn't have a general GET /accounts endpoint
-    // We'll use search with empty term to get all accounts
-    const response = await api.post('/accounts/search', null, { 
-      params: { searchTerm: params.searchTerm || '' } 
-    });
+    // We'll use search with empty term to get all accounts, following X-Next-Page until the last page
+    const accounts = [];
+    let page = 0;
+    while (page !== null) {
+      const response = await api.post('/accounts/search', null, {
+        params: { searchTerm: params.searchTerm || '', page, size: 100 }
+      });
+      accounts.push(...response.data);
+      const nextPage = response.headers['x-next-page'];
+      page = nextPage !== undefined ? Number(nextPage) : null;
+    }
+    return accounts;
+  },
+
+  // Accounts, balance totals and the latest transactions of every account in one request
+  async getDashboard(recent = 3) {
+    const response = await api.get('/dashboard', { params: { recent } });
     return response.data;
   },
 
@@ -0,0 +1,78 @@
+import axios from 'axios';
+
+const API_BASE_URL = 'http://localhost:8080/api';
+const RECONNECT_DELAY_MS = 3000;
+
+// EventSource cannot send an Authorization header, so the JWT is traded for a short-lived,
+// single-use ticket that goes in the query string instead
+const fetchTicket = async (token) => {
+  const response = await axios.post(`${API_BASE_URL}/notifications/ticket`, null, {
+    headers: { Authorization: `Bearer ${token}` }
+  });
+  return response.data.ticket;
+};
+
+export const notificationService = {
+  // Opens the server-sent event stream for the logged-in user; returns a function that closes it.
+  subscribe({ onTransaction, onBalance } = {}) {
+    const token = localStorage.getItem('token');
+    if (!token) {
+      return () => {};
+    }
+    let source = null;
+    let closed = false;
+    let retryTimer = null;
+    // asOf of the newest balance seen per account. Transfers committing on different threads can still
+    // publish out of order, so an older balance must never overwrite a newer one. Jackson writes asOf as an
+    // ISO local date-time, which compares correctly as a string.
+    const latestBalanceAt = {};
+    const handleBalance = (balance) => {
+      const latest = latestBalanceAt[balance.accountId];
+      if (latest && balance.asOf < latest) {
+        return;
+      }
+      latestBalanceAt[balance.accountId] = balance.asOf;
+      onBalance(balance);
+    };
+
+    const connect = async () => {
+      let ticket;
+      try {
+        ticket = await fetchTicket(token);
+      } catch (err) {
+        scheduleReconnect();
+        return;
+      }
+      if (closed) {
+        return;
+      }
+      source = new EventSource(`${API_BASE_URL}/notifications/stream?ticket=${encodeURIComponent(ticket)}`);
+      if (onTransaction) {
+        source.addEventListener('transaction', (event) => onTransaction(JSON.parse(event.data)));
+      }
+      if (onBalance) {
+        source.addEventListener('balance', (event) => handleBalance(JSON.parse(event.data)));
+      }
+      // The ticket is spent, so EventSource's own retry would be rejected; reconnect with a fresh one
+      source.onerror = () => {
+        source.close();
+        scheduleReconnect();
+      };
+    };
+
+    const scheduleReconnect = () => {
+      if (!closed) {
+        retryTimer = setTimeout(connect, RECONNECT_DELAY_MS);
+      }
+    };
+
+    connect();
+    return () => {
+      closed = true;
+      clearTimeout(retryTimer);
+      if (source) {
+        source.close();
+      }
+    };
+  }
+};
\ No newline at end of file